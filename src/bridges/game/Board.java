@@ -1,8 +1,8 @@
 package bridges.game;
 
-import java.lang.Math;
-
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -14,10 +14,133 @@ import java.util.Map;
  * @author Maik Messerschmidt
  */
 public class Board {
-    final private List<Island> islands;
-    final private List<Bridge> bridges;
+    /*
+     * Boards with at most this many cells always use a dense index.
+     */
+    final private static int DENSE_CELL_LIMIT = 1 << 16;
+
+    /*
+     * Larger boards use a dense index, if there is at least one
+     * island per DENSITY_FACTOR cells.
+     */
+    final private static int DENSITY_FACTOR = 16;
+
+    /*
+     * Flags used within the occupancy grid.
+     */
+    final private static byte HORIZONTAL = 1;
+    final private static byte VERTICAL = 2;
+
+    /*
+     * The change log is restarted, once it holds this many changes.
+     */
+    final private static int CHANGE_LOG_LIMIT = 1 << 12;
+
     final private int width;
     final private int height;
+    private List<Island> islands;
+
+    /*
+     * Index structures, which are maintained by addIsland():
+     *
+     * index finds the island id for a board position (see IslandIndex).
+     * links holds the id of the nearest island for every island and direction
+     * at links[4 * id + direction.ordinal()] (-1, if there is none).
+     *
+     * The id of an island is its position within the islands list.
+     */
+    private IslandIndex index;
+    private int[] links;
+
+    /*
+     * Bridge structures, which are maintained by addBridge(), removeOneBridge()
+     * and reset():
+     *
+     * edges holds the bridge to the eastern neighbor of island id at edges[2 * id]
+     * and the bridge to its southern neighbor at edges[2 * id + 1] (or null).
+     * counts holds the current bridge count of every island.
+     * incomplete and overfull hold the ids of all islands, which have less
+     * (or more) bridges than required.
+     */
+    private Bridge[] edges;
+    private int[] counts;
+    private BitSet incomplete;
+    private BitSet overfull;
+
+    /*
+     * occupancy holds the HORIZONTAL and VERTICAL flags for every cell,
+     * which is passed by a bridge (excluding the cells of the islands).
+     * It is only present, if the dense index is used. Crossing checks
+     * on sparse boards fall back to checking all bridges.
+     */
+    private byte[] occupancy;
+
+    /*
+     * Connectivity structures (a disjoint-set forest over the island ids):
+     *
+     * parent holds the parent id of every island (roots point to themselves),
+     * sizes holds the number of islands within the set of every root.
+     * componentCount is the number of sets, that is: the number of groups of
+     * connected islands.
+     *
+     * Adding bridges only merges sets. Removing a bridge may split a set,
+     * so in that case the forest is marked as stale and rebuilt on the
+     * next query.
+     */
+    private int[] parent;
+    private int[] sizes;
+    private int componentCount;
+    private boolean connectivityStale;
+
+    /*
+     * Zobrist hashes (see Zobrist) of the islands and of the bridges
+     * on this board, which are maintained by addIsland() and applyEdge().
+     */
+    private long islandsHash;
+    private long bridgesHash;
+
+    /*
+     * Copy-on-write flags:
+     *
+     * Copies and snapshots share all of the structures above with the
+     * original board. islandsShared is set, while the island structures
+     * (islands, index and links) may be used by another board,
+     * bridgesShared is set, while the bridge and connectivity structures
+     * may be used by another board. The first change to a shared group of
+     * structures makes a private copy of them.
+     *
+     * Snapshots can't be changed at all.
+     */
+    private boolean islandsShared;
+    private boolean bridgesShared;
+    final private boolean isSnapshot;
+
+    /*
+     * Journal structures, which are maintained by setEdge(), undo() and redo():
+     *
+     * Entry i changed slot journalSlots[i] from journalBefore[i] to
+     * journalAfter[i]. The first journalPosition entries are applied,
+     * the entries up to journalEnd have been undone and can be redone.
+     * The journal belongs to this board only, so copies and snapshots
+     * start with an empty journal.
+     */
+    private int[] journalSlots = new int[16];
+    private Bridge[] journalBefore = new Bridge[16];
+    private Bridge[] journalAfter = new Bridge[16];
+    private int journalPosition = 0;
+    private int journalEnd = 0;
+
+    /*
+     * Change log, which is maintained by applyEdge(), addIsland() and reset():
+     *
+     * changedSlots holds the first changeCount slots changed since the log
+     * was restarted the last time. changeEpoch counts the restarts, so marks
+     * taken before a restart can be told apart (see getChangeMark()).
+     * Like the journal, the log belongs to this board only.
+     */
+    private int[] changedSlots = new int[16];
+    private int changeCount = 0;
+    private int changeEpoch = 0;
 
     /**
      * Creates a new Board instance.
@@ -47,7 +170,22 @@ public class Board {
         this.height = height;
 
         this.islands = new ArrayList<Island>();
-        this.bridges = new ArrayList<Bridge>();
+        this.index = createIndex(islands == null ? 0 : islands.size());
+        this.occupancy = (index instanceof DenseIslandIndex) ? new byte[width * height] : null;
+        this.links = new int[4 * 16];
+        this.edges = new Bridge[2 * 16];
+        this.counts = new int[16];
+        this.incomplete = new BitSet();
+        this.overfull = new BitSet();
+        this.parent = new int[16];
+        this.sizes = new int[16];
+        this.componentCount = 0;
+        this.connectivityStale = false;
+        this.islandsHash = 0;
+        this.bridgesHash = 0;
+        this.islandsShared = false;
+        this.bridgesShared = false;
+        this.isSnapshot = false;
 
         if (islands != null) {
             for (Island island : islands)
@@ -60,13 +198,115 @@ public class Board {
         }
     }
 
+    /**
+     * Creates a new Board instance sharing all structures with the given board.
+     *
+     * @param other      - the board to share the structures with.
+     * @param isSnapshot - whether or not the new board can be changed.
+     */
+    private Board(Board other, boolean isSnapshot) {
+        this.width = other.width;
+        this.height = other.height;
+        this.islands = other.islands;
+        this.index = other.index;
+        this.links = other.links;
+        this.edges = other.edges;
+        this.counts = other.counts;
+        this.incomplete = other.incomplete;
+        this.overfull = other.overfull;
+        this.occupancy = other.occupancy;
+        this.parent = other.parent;
+        this.sizes = other.sizes;
+        this.componentCount = other.componentCount;
+        this.connectivityStale = other.connectivityStale;
+        this.islandsHash = other.islandsHash;
+        this.bridgesHash = other.bridgesHash;
+        this.islandsShared = true;
+        this.bridgesShared = true;
+        this.isSnapshot = isSnapshot;
+
+        other.islandsShared = true;
+        other.bridgesShared = true;
+    }
+
     /**
      * Return a copy of this board.
+     * <br><br>
+     * The copy shares its data with this board until
+     * either of them is changed, so copying is cheap.
      *
      * @return Board instance
      */
     public Board copy() {
-        return new Board(width, height, new ArrayList<Island>(islands), new ArrayList<Bridge>(bridges));
+        return new Board(this, false);
+    }
+
+    /**
+     * Return a snapshot of the current state of this board.
+     * <br><br>
+     * A snapshot is a board, which can't be changed: All methods
+     * which would change it throw an UnsupportedOperationException.
+     * Changing this board afterwards doesn't change the snapshot,
+     * so it can be read by other threads without any locking.
+     * <br><br>
+     * Like copy(), this is cheap, since the snapshot shares its data
+     * with this board until this board is changed.
+     *
+     * @return Board instance
+     */
+    public Board snapshot() {
+        // Make sure, the snapshot never has to update its structures.
+        if (connectivityStale)
+            rebuildConnectivity();
+        return new Board(this, true);
+    }
+
+    /**
+     * Check, if this board is a snapshot (and can't be changed).
+     *
+     * @return true, if this board was created by snapshot(), false otherwise.
+     * @see #snapshot()
+     */
+    public boolean isSnapshot() {
+        return isSnapshot;
+    }
+
+    /**
+     * Make sure the island structures can be changed, copying them if they are shared.
+     *
+     * @throws UnsupportedOperationException if this board is a snapshot.
+     */
+    private void ownIslands() throws UnsupportedOperationException {
+        if (isSnapshot)
+            throw new UnsupportedOperationException("Board snapshots can't be changed.");
+
+        if (islandsShared) {
+            islands = new ArrayList<Island>(islands);
+            index = index.copy();
+            links = links.clone();
+            islandsShared = false;
+        }
+    }
+
+    /**
+     * Make sure the bridge structures can be changed, copying them if they are shared.
+     *
+     * @throws UnsupportedOperationException if this board is a snapshot.
+     */
+    private void ownBridges() throws UnsupportedOperationException {
+        if (isSnapshot)
+            throw new UnsupportedOperationException("Board snapshots can't be changed.");
+
+        if (bridgesShared) {
+            edges = edges.clone();
+            counts = counts.clone();
+            incomplete = (BitSet) incomplete.clone();
+            overfull = (BitSet) overfull.clone();
+            occupancy = (occupancy == null) ? null : occupancy.clone();
+            parent = parent.clone();
+            sizes = sizes.clone();
+            bridgesShared = false;
+        }
     }
 
     /**
@@ -98,6 +338,9 @@ public class Board {
      *                                  1. the island doesn't fit onto this board (x or y too large) or
      *                                  2. the island is placed directly next to another or on an island,
      *                                  which is already present on the board or
+     *                                  3. the island is placed under a bridge, which is already present
+     *                                  on the board.
+     * @throws UnsupportedOperationException if this board is a snapshot.
      */
     public void addIsland(Island island) {
         // Island doesn't fit onto the board.
@@ -106,13 +349,378 @@ public class Board {
                     "Cannot place" + island + ". Board is " + width + " x " + height + ".");
 
         // Island collides with another already present island.
-        for (Island is : islands) {
-            if (is.collidesWith(island))
-                throw new IllegalArgumentException(
-                        island + " collides with already present " + is);
-        }
+        Island colliding = searchColliding(island);
+        if (colliding != null)
+            throw new IllegalArgumentException(
+                    island + " collides with already present " + colliding);
 
+        // Island would split a bridge, that is already present.
+        if (isCut(island.getX(), island.getY()))
+            throw new IllegalArgumentException(
+                    island + " is cut by an already present bridge.");
+
+        ownIslands();
+        ownBridges();
+
+        // Journal entries refer to slots, whose neighbors may change now.
+        clearJournal();
+        restartChangeLog();
+
+        int id = islands.size();
         islands.add(island);
+        index.put(island.getX(), island.getY(), id);
+        islandsHash ^= Zobrist.islandKey(island);
+
+        if (counts.length < id + 1) {
+            links = Arrays.copyOf(links, 2 * links.length);
+            edges = Arrays.copyOf(edges, 2 * edges.length);
+            counts = Arrays.copyOf(counts, 2 * counts.length);
+            parent = Arrays.copyOf(parent, 2 * parent.length);
+            sizes = Arrays.copyOf(sizes, 2 * sizes.length);
+        }
+        incomplete.set(id);
+        parent[id] = id;
+        sizes[id] = 1;
+        componentCount++;
+
+        // Link the new island with its nearest neighbors. Since the new
+        // island lies between them, it also replaces their former links.
+        for (Direction dir : Direction.values()) {
+            int other = index.nearest(island.getX(), island.getY(), dir);
+            links[4 * id + dir.ordinal()] = other;
+            if (other != -1)
+                links[4 * other + dir.opposite().ordinal()] = id;
+        }
+
+        // Switch to the dense index, once the board is crowded enough.
+        if (index instanceof SparseIslandIndex && prefersDenseIndex(islands.size())) {
+            index = createIndex(islands.size());
+            for (int i = 0; i < islands.size(); i++)
+                index.put(islands.get(i).getX(), islands.get(i).getY(), i);
+
+            occupancy = new byte[width * height];
+            for (int slot = 0; slot < 2 * islands.size(); slot++) {
+                if (edges[slot] != null)
+                    occupy(slot, true);
+            }
+        }
+    }
+
+    /**
+     * Return an island on the board, which collides with the given island or null.
+     *
+     * @param island - the island to check.
+     * @return An island with the same coordinates or directly next to the given island or null.
+     * @see Island#collidesWith(Island)
+     */
+    public Island searchColliding(Island island) {
+        Island colliding = getIslandAt(island.getX(), island.getY());
+        for (Direction dir : Direction.values()) {
+            if (colliding != null)
+                break;
+            colliding = getIslandAt(island.getX() + dir.dx, island.getY() + dir.dy);
+        }
+        return colliding;
+    }
+
+    /**
+     * Check, if a dense index should be used for the given island count.
+     *
+     * @param islandCount - the (expected) number of islands on the board.
+     * @return true, if the board is small or crowded enough, false otherwise.
+     */
+    private boolean prefersDenseIndex(int islandCount) {
+        long cellCount = (long) width * height;
+        return cellCount <= DENSE_CELL_LIMIT || cellCount <= (long) DENSITY_FACTOR * islandCount;
+    }
+
+    /**
+     * Create a new, empty index suitable for the given island count.
+     *
+     * @param islandCount - the (expected) number of islands on the board.
+     * @return A DenseIslandIndex or a SparseIslandIndex depending on the board density.
+     */
+    private IslandIndex createIndex(int islandCount) {
+        if (prefersDenseIndex(islandCount))
+            return new DenseIslandIndex(width, height);
+        else
+            return new SparseIslandIndex(width, height);
+    }
+
+    /**
+     * Return the id of the given island or -1, if it is not present on this board.
+     * <br><br>
+     * Islands get consecutive ids starting with 0 in the order they are added,
+     * so the id is also the position of the island within getIslands().
+     * Ids never change during the lifetime of a board.
+     *
+     * @param island - the island to look for.
+     * @return The id of the island or -1.
+     */
+    public int getIslandId(Island island) {
+        if (island == null)
+            return -1;
+
+        int id = getIslandIdAt(island.getX(), island.getY());
+        if (id == -1 || !islands.get(id).equals(island))
+            return -1;
+        return id;
+    }
+
+    /**
+     * Return the id of the island at the given board position or -1.
+     *
+     * @param x - the x coordinate of the island.
+     * @param y - the y coordinate of the island.
+     * @return The id of the island at the given position or -1, if no island is present.
+     */
+    public int getIslandIdAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return -1;
+        return index.get(x, y);
+    }
+
+    /**
+     * Return the island with the given id.
+     *
+     * @param id - the id of the island.
+     * @return The island with the given id.
+     * @throws IndexOutOfBoundsException if there is no island with the given id.
+     */
+    public Island getIsland(int id) throws IndexOutOfBoundsException {
+        return islands.get(id);
+    }
+
+    /**
+     * Return the id of the neighbor of an island in the given direction or -1.
+     * The result of the method does not depend on the bridges on the board.
+     *
+     * @param id        - the id of the island.
+     * @param direction - Direction, in which a neighbor is looked for.
+     * @return The id of the neighbor or -1, if there is none.
+     * @throws IndexOutOfBoundsException if there is no island with the given id.
+     */
+    public int neighborId(int id, Direction direction) throws IndexOutOfBoundsException {
+        if (id < 0 || id >= islands.size())
+            throw new IndexOutOfBoundsException("No island with id " + id + ".");
+        return links[4 * id + direction.ordinal()];
+    }
+
+    /**
+     * Return the number of bridges between an island and its
+     * neighbor in the given direction.
+     *
+     * @param id        - the id of the island.
+     * @param direction - the direction of the neighbor.
+     * @return 2 for a double bridge, 1 for a single bridge and 0, if there
+     * is no bridge (or no neighbor).
+     * @throws IndexOutOfBoundsException if there is no island with the given id.
+     */
+    public int getBridgeMultiplicity(int id, Direction direction) throws IndexOutOfBoundsException {
+        int slot = edgeSlot(id, neighborId(id, direction));
+        if (slot == -1)
+            return 0;
+        return multiplicity(edges[slot]);
+    }
+
+    /**
+     * Return the slot within edges, which holds bridges between the given islands.
+     *
+     * @param id    - the id of the first island.
+     * @param other - the id of the second island.
+     * @return The index of the slot or -1, if the islands aren't neighbors.
+     */
+    private int edgeSlot(int id, int other) {
+        if (id == -1 || other == -1)
+            return -1;
+        else if (links[4 * id + Direction.EAST.ordinal()] == other)
+            return 2 * id;
+        else if (links[4 * id + Direction.SOUTH.ordinal()] == other)
+            return 2 * id + 1;
+        else if (links[4 * id + Direction.WEST.ordinal()] == other)
+            return 2 * other;
+        else if (links[4 * id + Direction.NORTH.ordinal()] == other)
+            return 2 * other + 1;
+        else
+            return -1;
+    }
+
+    /**
+     * Put the given bridge (or null) into the given slot and record
+     * the change within the journal (dropping all undone changes).
+     *
+     * @param slot   - the slot within edges.
+     * @param bridge - the new bridge or null to remove the present one.
+     */
+    private void setEdge(int slot, Bridge bridge) {
+        ownBridges();
+
+        if (journalPosition == journalSlots.length) {
+            journalSlots = Arrays.copyOf(journalSlots, 2 * journalPosition);
+            journalBefore = Arrays.copyOf(journalBefore, 2 * journalPosition);
+            journalAfter = Arrays.copyOf(journalAfter, 2 * journalPosition);
+        }
+        journalSlots[journalPosition] = slot;
+        journalBefore[journalPosition] = edges[slot];
+        journalAfter[journalPosition] = bridge;
+        journalPosition++;
+        if (journalEnd > journalPosition) {
+            // Drop the undone changes, so the bridges can be collected.
+            Arrays.fill(journalBefore, journalPosition, journalEnd, null);
+            Arrays.fill(journalAfter, journalPosition, journalEnd, null);
+        }
+        journalEnd = journalPosition;
+
+        applyEdge(slot, bridge);
+    }
+
+    /**
+     * Put the given bridge (or null) into the given slot, updating
+     * the bridge counts of both islands.
+     *
+     * @param slot   - the slot within edges.
+     * @param bridge - the new bridge or null to remove the present one.
+     */
+    private void applyEdge(int slot, Bridge bridge) {
+        ownBridges();
+
+        Bridge old = edges[slot];
+        int delta = multiplicity(bridge) - multiplicity(old);
+        edges[slot] = bridge;
+        logChange(slot);
+        bridgesHash ^= Zobrist.bridgeKey(old) ^ Zobrist.bridgeKey(bridge);
+
+        int id = slot / 2;
+        Direction dir = (slot % 2 == 0) ? Direction.EAST : Direction.SOUTH;
+        int other = links[4 * id + dir.ordinal()];
+        updateCount(id, delta);
+        updateCount(other, delta);
+
+        if (old == null && bridge != null) {
+            occupy(slot, true);
+            if (!connectivityStale)
+                union(id, other);
+        } else if (old != null && bridge == null) {
+            occupy(slot, false);
+            connectivityStale = true;
+        }
+    }
+
+    /**
+     * Set or clear the occupancy flags for all cells passed by the given slot.
+     *
+     * @param slot     - the slot within edges.
+     * @param occupied - true to set the flags, false to clear them.
+     */
+    private void occupy(int slot, boolean occupied) {
+        if (occupancy == null)
+            return;
+
+        int id = slot / 2;
+        Direction dir = (slot % 2 == 0) ? Direction.EAST : Direction.SOUTH;
+        byte flag = (dir == Direction.EAST) ? HORIZONTAL : VERTICAL;
+        Island start = islands.get(id);
+        Island end = islands.get(links[4 * id + dir.ordinal()]);
+
+        int x = start.getX() + dir.dx;
+        int y = start.getY() + dir.dy;
+        while (x != end.getX() || y != end.getY()) {
+            if (occupied)
+                occupancy[y * width + x] |= flag;
+            else
+                occupancy[y * width + x] &= ~flag;
+            x += dir.dx;
+            y += dir.dy;
+        }
+    }
+
+    /**
+     * Check, if the given bridge would cross any bridge on the board.
+     * <br><br>
+     * The bridge doesn't need to be part of the board and
+     * its islands don't need to be present on the board.
+     *
+     * @param bridge - the bridge to check.
+     * @return true, if any of the bridges on the board crosses the given bridge, false otherwise.
+     * @see Bridge#crosses(Bridge)
+     */
+    public boolean crosses(Bridge bridge) {
+        if (occupancy == null) {
+            for (Bridge b : edges) {
+                if (b != null && b.crosses(bridge))
+                    return true;
+            }
+            return false;
+        }
+
+        Island first = bridge.getFirstIsland();
+        Island second = bridge.getSecondIsland();
+        int dx = Integer.signum(second.getX() - first.getX());
+        int dy = Integer.signum(second.getY() - first.getY());
+
+        // Only bridges perpendicular to the given bridge can cross it.
+        byte flag = (dx != 0) ? VERTICAL : HORIZONTAL;
+
+        int x = first.getX() + dx;
+        int y = first.getY() + dy;
+        while (x != second.getX() || y != second.getY()) {
+            if (x < width && y < height && (occupancy[y * width + x] & flag) != 0)
+                return true;
+            x += dx;
+            y += dy;
+        }
+        return false;
+    }
+
+    /**
+     * Check, if the given position is passed by any bridge on the board.
+     *
+     * @param x - the x coordinate.
+     * @param y - the y coordinate.
+     * @return true, if a bridge passes the position, false otherwise.
+     * @see Bridge#cuts(Island)
+     */
+    public boolean isCut(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return false;
+
+        if (occupancy != null)
+            return occupancy[y * width + x] != 0;
+
+        Island island = new Island(x, y, 1);
+        for (Bridge b : edges) {
+            if (b != null && b.cuts(island))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Change the bridge count of an island and update the sets
+     * of incomplete and overfull islands.
+     *
+     * @param id    - the id of the island.
+     * @param delta - the difference to apply to the bridge count.
+     */
+    private void updateCount(int id, int delta) {
+        int count = counts[id] + delta;
+        int required = islands.get(id).getRequiredBridges();
+        counts[id] = count;
+        incomplete.set(id, count < required);
+        overfull.set(id, count > required);
+    }
+
+    /**
+     * @param bridge - a bridge or null.
+     * @return 2 for a double bridge, 1 for a single bridge and 0 for null.
+     */
+    private static int multiplicity(Bridge bridge) {
+        if (bridge == null)
+            return 0;
+        else if (bridge.isDouble())
+            return 2;
+        else
+            return 1;
     }
 
     /**
@@ -150,21 +758,18 @@ public class Board {
         if (bridge == null)
             return false;
 
-        if (!(islands.contains(bridge.getFirstIsland())
-                && islands.contains(bridge.getSecondIsland())))
+        if (getIslandId(bridge.getFirstIsland()) == -1
+                || getIslandId(bridge.getSecondIsland()) == -1)
             return false;
 
-        for (Bridge b : bridges) {
-            // reject crossing bridges
-            if (b.crosses(bridge))
-                return false;
-            // reject equal bridges
-            else if (b.equals(bridge))
-                return false;
-        }
+        // reject crossing bridges
+        if (crosses(bridge))
+            return false;
 
-        // reject single bridges, if an equivalent double bridge is present.
-        if (! bridge.isDouble() && bridge.isCovered(bridges))
+        // reject equal bridges and single bridges, if an equivalent
+        // single or double bridge is present.
+        Bridge other = searchBridge(bridge.getFirstIsland(), bridge.getSecondIsland());
+        if (other != null && (other.isDouble() || !bridge.isDouble()))
             return false;
 
         return true;
@@ -179,9 +784,14 @@ public class Board {
     public List<Bridge> bridges(Island island) {
         List<Bridge> connected = new ArrayList<Bridge>();
 
-        for (Bridge b : bridges) {
-            if (b.hasIsland(island))
-                connected.add(b);
+        int id = getIslandId(island);
+        if (id == -1)
+            return connected;
+
+        for (Direction dir : Direction.values()) {
+            int slot = edgeSlot(id, links[4 * id + dir.ordinal()]);
+            if (slot != -1 && edges[slot] != null)
+                connected.add(edges[slot]);
         }
         return connected;
     }
@@ -192,7 +802,41 @@ public class Board {
      * @return All bridges on the board.
      */
     public List<Bridge> bridges() {
-        return new ArrayList<Bridge>(bridges);
+        List<Bridge> bridges = new ArrayList<Bridge>();
+        for (int slot = 0; slot < 2 * islands.size(); slot++) {
+            if (edges[slot] != null)
+                bridges.add(edges[slot]);
+        }
+        return bridges;
+    }
+
+    /**
+     * Return the current bridge count of the given island.
+     * Double bridges count as two, single bridges count as one.
+     *
+     * @param island - the island to count the bridges for.
+     * @return The number of bridges connected to the island or 0,
+     * if the island is not present on this board.
+     */
+    public int getBridgeCount(Island island) {
+        int id = getIslandId(island);
+        if (id == -1)
+            return 0;
+        return counts[id];
+    }
+
+    /**
+     * Return the current bridge count of the island with the given id.
+     * Double bridges count as two, single bridges count as one.
+     *
+     * @param id - the id of the island.
+     * @return The number of bridges connected to the island.
+     * @throws IndexOutOfBoundsException if there is no island with the given id.
+     */
+    public int getBridgeCount(int id) throws IndexOutOfBoundsException {
+        if (id < 0 || id >= islands.size())
+            throw new IndexOutOfBoundsException("No island with id " + id + ".");
+        return counts[id];
     }
 
     /**
@@ -203,11 +847,10 @@ public class Board {
      * @return The island at the given position or null, if no island is present.
      */
     public Island getIslandAt(int x, int y) {
-        for (Island island : islands) {
-            if (island.getX() == x && island.getY() == y)
-                return island;
-        }
-        return null;
+        int id = getIslandIdAt(x, y);
+        if (id == -1)
+            return null;
+        return islands.get(id);
     }
 
     /**
@@ -235,11 +878,10 @@ public class Board {
      * @return A bridge, which connects both islands or null.
      */
     public Bridge searchBridge(Island island1, Island island2) {
-        for (Bridge b : bridges) {
-            if (b.hasIsland(island1) && b.hasIsland(island2))
-                return b;
-        }
-        return null;
+        int slot = edgeSlot(getIslandId(island1), getIslandId(island2));
+        if (slot == -1)
+            return null;
+        return edges[slot];
     }
 
     /**
@@ -267,29 +909,29 @@ public class Board {
      * @throws IllegalArgumentException if the two islands of the bridge aren't neighbors or
      *                                  the bridge cannot replace an already existing bridge
      *                                  (e.g. trying to replace a double bridge with a single).
+     * @throws UnsupportedOperationException if this board is a snapshot.
      */
     public void addBridge(Bridge bridge) throws IllegalArgumentException {
-        Island first = bridge.getFirstIsland();
-        Island second = bridge.getSecondIsland();
+        int first = getIslandId(bridge.getFirstIsland());
+        int second = getIslandId(bridge.getSecondIsland());
+
+        if (first == -1 || second == -1)
+            throw new IllegalArgumentException("Island not present on board.");
 
-        if (!neighbors(first).contains(second))
+        int slot = edgeSlot(first, second);
+        if (slot == -1)
             throw new IllegalArgumentException(
                     "Cannot add bridge " + bridge + "." +
                             "Contained islands aren't neighbors.");
 
-        Bridge other = searchBridge(first, second);
+        Bridge other = edges[slot];
 
-        // Add the new bridge (single or double)
-        if (other == null)
-            bridges.add(bridge);
-            // Replace the old single bridge with a double bridge.
-        else {
-            if (!other.isDouble() && bridge.isDouble()) {
-                bridges.remove(other);
-                bridges.add(bridge);
-            } else
-                throw new IllegalArgumentException("Cannot replace " + other + " with " + bridge);
-        }
+        // Add the new bridge (single or double) or
+        // replace the old single bridge with a double bridge.
+        if (other == null || (!other.isDouble() && bridge.isDouble()))
+            setEdge(slot, bridge);
+        else
+            throw new IllegalArgumentException("Cannot replace " + other + " with " + bridge);
     }
 
     /**
@@ -300,18 +942,269 @@ public class Board {
      * @param bridge - the bridge to remove.
      * @return The bridge, which replaced the old one (if it was a double bridge) or null.
      * @throws IllegalArgumentException if the bridge isn't part of this board.
+     * @throws UnsupportedOperationException if this board is a snapshot.
      */
     public Bridge removeOneBridge(Bridge bridge) throws IllegalArgumentException {
-        if (!bridges.contains(bridge))
+        int slot = edgeSlot(getIslandId(bridge.getFirstIsland()), getIslandId(bridge.getSecondIsland()));
+        if (slot == -1 || !bridge.equals(edges[slot]))
             throw new IllegalArgumentException("Board doesn't contain " + bridge + ".");
 
-        bridges.remove(bridge);
         if (bridge.isDouble()) {
             Bridge newBridge = new Bridge(bridge.getFirstIsland(), bridge.getSecondIsland(), false);
-            bridges.add(newBridge);
+            setEdge(slot, newBridge);
             return newBridge;
-        } else
+        } else {
+            setEdge(slot, null);
             return null;
+        }
+    }
+
+    /**
+     * Return a checkpoint for the current state of the bridges on this board.
+     * <br><br>
+     * Passing the checkpoint to rollback() later on takes back all bridge
+     * changes made since then. Each change is taken back in constant time,
+     * so this is much cheaper than copying the board.
+     *
+     * @return The checkpoint (the number of changes, which can be undone).
+     * @see #rollback(int)
+     */
+    public int checkpoint() {
+        return journalPosition;
+    }
+
+    /**
+     * Take back all bridge changes made since the given checkpoint.
+     * <br><br>
+     * The changes taken back can be redone using redo().
+     *
+     * @param checkpoint - a checkpoint returned by checkpoint().
+     * @throws IllegalArgumentException if the checkpoint is invalid (e.g. its changes were already taken back).
+     * @throws UnsupportedOperationException if this board is a snapshot.
+     * @see #checkpoint()
+     */
+    public void rollback(int checkpoint) throws IllegalArgumentException {
+        if (checkpoint < 0 || checkpoint > journalPosition)
+            throw new IllegalArgumentException("Invalid checkpoint " + checkpoint + ".");
+
+        while (journalPosition > checkpoint)
+            undo();
+    }
+
+    /**
+     * Check, if there is a bridge change, which can be undone.
+     *
+     * @return true, if undo() will change the board, false otherwise.
+     */
+    public boolean canUndo() {
+        return journalPosition > 0;
+    }
+
+    /**
+     * Check, if there is an undone bridge change, which can be redone.
+     *
+     * @return true, if redo() will change the board, false otherwise.
+     */
+    public boolean canRedo() {
+        return journalPosition < journalEnd;
+    }
+
+    /**
+     * Take back the last change of the bridges on this board
+     * (that is: the last call of addBridge() or removeOneBridge()).
+     *
+     * @return true, if a change was taken back, false if there was none.
+     * @throws UnsupportedOperationException if this board is a snapshot.
+     */
+    public boolean undo() {
+        if (!canUndo())
+            return false;
+
+        journalPosition--;
+        applyEdge(journalSlots[journalPosition], journalBefore[journalPosition]);
+        return true;
+    }
+
+    /**
+     * Redo the last change taken back by undo() or rollback().
+     * <br><br>
+     * Note: Any other change of the bridges drops all changes,
+     * which could be redone.
+     *
+     * @return true, if a change was redone, false if there was none.
+     * @throws UnsupportedOperationException if this board is a snapshot.
+     */
+    public boolean redo() {
+        if (!canRedo())
+            return false;
+
+        applyEdge(journalSlots[journalPosition], journalAfter[journalPosition]);
+        journalPosition++;
+        return true;
+    }
+
+    /**
+     * Drop all changes, which could be redone (e.g. those taken back
+     * by rolling back a search, which shouldn't be replayed).
+     */
+    public void clearRedo() {
+        Arrays.fill(journalBefore, journalPosition, journalEnd, null);
+        Arrays.fill(journalAfter, journalPosition, journalEnd, null);
+        journalEnd = journalPosition;
+    }
+
+    /**
+     * Drop all journal entries, so there is nothing to undo or redo.
+     */
+    private void clearJournal() {
+        Arrays.fill(journalBefore, 0, journalEnd, null);
+        Arrays.fill(journalAfter, 0, journalEnd, null);
+        journalPosition = 0;
+        journalEnd = 0;
+    }
+
+    /**
+     * Return a mark for the current state of the change log of this board.
+     * <br><br>
+     * Passing the mark to collectChangedIslands() later on returns the islands
+     * affected by all bridge changes made since then. Marks are only
+     * meaningful for the board they were taken from.
+     *
+     * @return The mark.
+     * @see #collectChangedIslands(long, BitSet)
+     */
+    public long getChangeMark() {
+        return (long) changeEpoch << 32 | changeCount;
+    }
+
+    /**
+     * Collect the islands affected by the bridge changes made since the given mark.
+     * <br><br>
+     * An island is affected by a change, if it is an island of the changed bridge,
+     * a neighbor of one of these islands or if it can't build a bridge across the
+     * changed bridge. So all islands, whose own bridges, valid neighbors or bridges
+     * of their neighbors may have changed, are collected (and maybe some more).
+     * <br><br>
+     * The log of changes is restarted from time to time (and whenever islands
+     * are added or the board is reset). In that case the changes since older marks
+     * are no longer known and any island may be affected.
+     *
+     * @param mark     - a mark returned by getChangeMark().
+     * @param affected - the set, where the ids of the affected islands are added.
+     * @return true, if the affected islands have been added, false, if the
+     * mark is too old and every island may be affected.
+     * @see #getChangeMark()
+     */
+    public boolean collectChangedIslands(long mark, BitSet affected) {
+        int epoch = (int) (mark >>> 32);
+        int count = (int) mark;
+        if (epoch != changeEpoch || count > changeCount)
+            return false;
+
+        for (int i = count; i < changeCount; i++) {
+            int slot = changedSlots[i];
+            int id = slot / 2;
+            Direction dir = (slot % 2 == 0) ? Direction.EAST : Direction.SOUTH;
+            int other = links[4 * id + dir.ordinal()];
+
+            for (int end : new int[]{id, other}) {
+                affected.set(end);
+                for (Direction neighborDir : Direction.values()) {
+                    int neighbor = links[4 * end + neighborDir.ordinal()];
+                    if (neighbor != -1)
+                        affected.set(neighbor);
+                }
+            }
+
+            // Collect the islands of all possible bridges crossing the slot.
+            for (int crossing : crossingPairs(slot))
+                affected.set(crossing);
+        }
+        return true;
+    }
+
+    /**
+     * Return all bridges between neighbors, which would cross a bridge between
+     * the given islands, whether or not they are on the board.
+     * <br><br>
+     * Unlike crosses(), this looks for possible bridges instead of the bridges
+     * on the board. It is meant for deduction rules, which have to know the
+     * bridges, that are ruled out by building a bridge.
+     *
+     * @param first  - the first island.
+     * @param second - the second island, a neighbor of the first.
+     * @return A single bridge for every pair of neighbors, whose bridges would cross.
+     * @throws IllegalArgumentException if the islands aren't neighbors on this board.
+     */
+    public List<Bridge> crossingBridges(Island first, Island second) throws IllegalArgumentException {
+        int id = getIslandId(first);
+        int other = getIslandId(second);
+        int slot = (id == -1 || other == -1) ? -1 : edgeSlot(id, other);
+        if (slot == -1)
+            throw new IllegalArgumentException(first + " and " + second + " aren't neighbors.");
+
+        List<Bridge> result = new ArrayList<Bridge>();
+        int[] pairs = crossingPairs(slot);
+        for (int i = 0; i < pairs.length; i += 2)
+            result.add(new Bridge(islands.get(pairs[i]), islands.get(pairs[i + 1]), false));
+        return result;
+    }
+
+    /**
+     * Return the ids of the islands of all possible bridges, which would cross
+     * a bridge in the given slot. The ids come in pairs: The islands at 2 * i
+     * and 2 * i + 1 are neighbors.
+     *
+     * @param slot - the slot within edges.
+     * @return The ids of the pairs of neighbors.
+     */
+    private int[] crossingPairs(int slot) {
+        int id = slot / 2;
+        Direction dir = (slot % 2 == 0) ? Direction.EAST : Direction.SOUTH;
+        Island start = islands.get(id);
+        Island end = islands.get(links[4 * id + dir.ordinal()]);
+
+        // The nearest island on one side of a cell is linked with the nearest
+        // island on the other side, since the cell itself is no island.
+        Direction side = (dir == Direction.EAST) ? Direction.NORTH : Direction.WEST;
+        int[] pairs = new int[2 * (Math.abs(end.getX() - start.getX()) + Math.abs(end.getY() - start.getY()))];
+        int size = 0;
+        int x = start.getX() + dir.dx;
+        int y = start.getY() + dir.dy;
+        while (x != end.getX() || y != end.getY()) {
+            int first = index.nearest(x, y, side);
+            if (first != -1) {
+                int second = links[4 * first + side.opposite().ordinal()];
+                if (second != -1) {
+                    pairs[size++] = first;
+                    pairs[size++] = second;
+                }
+            }
+            x += dir.dx;
+            y += dir.dy;
+        }
+        return Arrays.copyOf(pairs, size);
+    }
+
+    /**
+     * Record a change of the given slot within the change log.
+     *
+     * @param slot - the slot within edges.
+     */
+    private void logChange(int slot) {
+        if (changeCount == CHANGE_LOG_LIMIT)
+            restartChangeLog();
+        if (changeCount == changedSlots.length)
+            changedSlots = Arrays.copyOf(changedSlots, 2 * changeCount);
+        changedSlots[changeCount++] = slot;
+    }
+
+    /**
+     * Drop all changes from the change log, so all older marks become invalid.
+     */
+    private void restartChangeLog() {
+        changeEpoch++;
+        changeCount = 0;
     }
 
     /**
@@ -324,40 +1217,14 @@ public class Board {
      * @throws IllegalArgumentException if the island is not present on this board.
      */
     public Island neighbor(Island island, Direction direction) throws IllegalArgumentException {
-        if (!islands.contains(island))
+        int id = getIslandId(island);
+        if (id == -1)
             throw new IllegalArgumentException("Island not present on board.");
 
-        Island neighbor = null;
-
-        for (Island other : islands) {
-            /*
-             * The other island lies in the given direction if and only if the
-             * signum of the x- and y-deltas match.
-             * E.g. a island to the south has dx=0 and dy=3, so the signums
-             * match these of SOUTH.dx (==0) and SOUTH.dy (==1).
-             *
-             * Note: skipping the current island is not needed, since dx==0, dy==0
-             * doesn't match any direction (and the performance gain would be minimal).
-             */
-            int dx = other.getX() - island.getX();
-            int dy = other.getY() - island.getY();
-            if (Math.signum(dx) == Math.signum(direction.dx) && Math.signum(dy) == Math.signum(direction.dy)) {
-                /*
-                 * Found a candidate for a neighbor.
-                 * Set this to the new neighbor, if neighbor is not set yet or
-                 * if the distances of this island is less than the distance of the
-                 * other neighbor candidate.
-                 */
-                if (neighbor == null)
-                    neighbor = other;
-                else if (Math.abs(neighbor.getX() - island.getX()) > Math.abs(dx))
-                    neighbor = other;
-                else if (Math.abs(neighbor.getY() - island.getY()) > Math.abs(dy))
-                    neighbor = other;
-            }
-        }
-
-        return neighbor;
+        int other = links[4 * id + direction.ordinal()];
+        if (other == -1)
+            return null;
+        return islands.get(other);
     }
 
     /**
@@ -393,15 +1260,7 @@ public class Board {
     public List<Island> validNeighbors(Island island) throws IllegalArgumentException {
         List<Island> validNeighbors = new ArrayList<Island>();
         for (Island other : neighbors(island)) {
-            boolean isValid = true;
-            Bridge testBridge = new Bridge(island, other, false);
-            for (Bridge b : bridges) {
-                if (testBridge.crosses(b)) {
-                    isValid = false;
-                    break;
-                }
-            }
-            if (isValid)
+            if (!crosses(new Bridge(island, other, false)))
                 validNeighbors.add(other);
         }
         return validNeighbors;
@@ -413,16 +1272,38 @@ public class Board {
      * @return The list of islands.
      */
     public List<Island> getIncomplete() {
-        List<Island> incomplete = new ArrayList<Island>();
+        return islandsOf(incomplete);
+    }
 
-        for (Island island : islands) {
-            int required = island.getRequiredBridges();
-            int count = Bridge.count(bridges(island));
-            if (count < required)
-                incomplete.add(island);
-        }
+    /**
+     * Return a list of islands, which have more bridges than required.
+     *
+     * @return The list of islands.
+     */
+    public List<Island> getOverfull() {
+        return islandsOf(overfull);
+    }
 
-        return incomplete;
+    /**
+     * Check, if there are islands, which have more bridges than required.
+     *
+     * @return true, if at least one island has too many bridges, false otherwise.
+     */
+    public boolean hasOverfull() {
+        return !overfull.isEmpty();
+    }
+
+    /**
+     * Return the islands for the given set of ids (ordered by their id).
+     *
+     * @param ids - the set of island ids.
+     * @return A list of the islands.
+     */
+    private List<Island> islandsOf(BitSet ids) {
+        List<Island> result = new ArrayList<Island>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1))
+            result.add(islands.get(id));
+        return result;
     }
 
     /**
@@ -432,10 +1313,8 @@ public class Board {
      * and the board is fully connected, false otherwise.
      */
     public boolean isComplete() {
-        for (Island island : islands) {
-            if (Bridge.count(bridges(island)) != island.getRequiredBridges())
-                return false;
-        }
+        if (!incomplete.isEmpty() || !overfull.isEmpty())
+            return false;
         return isFullyConnected();
     }
 
@@ -447,7 +1326,21 @@ public class Board {
      * @return true, if every island can be reached, false otherwise.
      */
     public boolean isFullyConnected() {
-        return partition().size() == 1;
+        return getComponentCount() == 1;
+    }
+
+    /**
+     * Return the number of groups of connected islands.
+     * <br><br>
+     * This is the same as <code>partition().size()</code>, but
+     * doesn't need to build the groups.
+     *
+     * @return The number of groups of connected islands.
+     */
+    public int getComponentCount() {
+        if (connectivityStale)
+            rebuildConnectivity();
+        return componentCount;
     }
 
     /**
@@ -459,46 +1352,174 @@ public class Board {
      * @return A list of list of islands, which are connected.
      */
     public List<List<Island>> partition() {
+        if (connectivityStale)
+            rebuildConnectivity();
+
         List<List<Island>> partitions = new ArrayList<List<Island>>();
-        List<Island> unvisited = new ArrayList<Island>(islands);
+        int[] group = new int[islands.size()];
 
-        while (!unvisited.isEmpty()) {
-            partitions.add(walk(unvisited.get(0), unvisited));
+        for (int id = 0; id < islands.size(); id++) {
+            int root = find(id);
+            // Create a new group, when we see its root for the first time.
+            if (group[root] == 0) {
+                partitions.add(new ArrayList<Island>(sizes[root]));
+                group[root] = partitions.size();
+            }
+            partitions.get(group[root] - 1).add(islands.get(id));
         }
         return partitions;
     }
 
     /**
-     * Walk along the bridges on the board only entering unvisited islands returning all visited islands.
-     * <br/><br/>
-     * This method is used to find all islands connected to the current island.
+     * Return the root of the set, which contains the given island.
      *
-     * @param current   - The island to start walking from.
-     * @param unvisited - A list of islands, which can be entered.
-     * @return A list of all islands, which where visited by walking along the board.
+     * @param id - the id of the island.
+     * @return The id of the root island.
      */
-    private List<Island> walk(Island current, List<Island> unvisited) {
-        List<Island> visited = new ArrayList<Island>();
-        unvisited.remove(current);
-        visited.add(current);
+    private int find(int id) {
+        while (parent[id] != id) {
+            // Path halving: skip every other island on the way to the root.
+            // This is skipped for shared structures, so reading a board
+            // never changes structures, which other boards may use.
+            if (!bridgesShared)
+                parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
 
-        for (Bridge bridge : bridges(current)) {
-            Island other;
-            if (bridge.getFirstIsland().equals(current))
-                other = bridge.getSecondIsland();
-            else
-                other = bridge.getFirstIsland();
+    /**
+     * Merge the sets of the given islands.
+     *
+     * @param id    - the id of the first island.
+     * @param other - the id of the second island.
+     */
+    private void union(int id, int other) {
+        int root = find(id);
+        int otherRoot = find(other);
+        if (root == otherRoot)
+            return;
+
+        // Attach the smaller set to the larger one.
+        if (sizes[root] < sizes[otherRoot]) {
+            int tmp = root;
+            root = otherRoot;
+            otherRoot = tmp;
+        }
+        parent[otherRoot] = root;
+        sizes[root] += sizes[otherRoot];
+        componentCount--;
+    }
+
+    /**
+     * Rebuild the connectivity structures from the bridges on the board.
+     */
+    private void rebuildConnectivity() {
+        ownBridges();
+
+        componentCount = islands.size();
+        for (int id = 0; id < islands.size(); id++) {
+            parent[id] = id;
+            sizes[id] = 1;
+        }
+
+        for (int slot = 0; slot < 2 * islands.size(); slot++) {
+            if (edges[slot] != null) {
+                int id = slot / 2;
+                Direction dir = (slot % 2 == 0) ? Direction.EAST : Direction.SOUTH;
+                union(id, links[4 * id + dir.ordinal()]);
+            }
+        }
+        connectivityStale = false;
+    }
+
+    /**
+     * Return the Zobrist hash of the islands and bridges on this board.
+     * <br><br>
+     * The hash is updated in constant time on every change, so it is cheap
+     * to use it as key for caches and transposition tables. Two boards with
+     * the same islands and bridges always have the same hash (regardless of
+     * the order, in which they were added), but different boards may have
+     * the same hash as well, so use equals() to rule out collisions.
+     *
+     * @return The 64 bit state hash.
+     * @see Zobrist
+     */
+    public long getStateHash() {
+        return islandsHash ^ bridgesHash;
+    }
 
-            if (unvisited.contains(other))
-                visited.addAll(walk(other, unvisited));
+    /**
+     * Check, if the other object is equal to this board.
+     *
+     * @return true, if the other object is a Board with the same size,
+     * the same islands and the same bridges, false otherwise.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof Board)
+            return equals((Board) other);
+        else
+            return false;
+    }
+
+    /**
+     * Check, if the other board is equal to this board.
+     * <br><br>
+     * Note: The order, in which islands and bridges were added, doesn't matter.
+     *
+     * @param other The other board.
+     * @return true, if the other board has the same size,
+     * the same islands and the same bridges, false otherwise.
+     */
+    public boolean equals(Board other) {
+        if (other == null)
+            return false;
+        if (other == this)
+            return true;
+        if (getStateHash() != other.getStateHash() || width != other.width
+                || height != other.height || islands.size() != other.islands.size())
+            return false;
+
+        // Since both boards have the same islands, they also have the same neighbors.
+        for (int id = 0; id < islands.size(); id++) {
+            int otherId = other.getIslandId(islands.get(id));
+            if (otherId == -1)
+                return false;
+            if (getBridgeMultiplicity(id, Direction.EAST) != other.getBridgeMultiplicity(otherId, Direction.EAST)
+                    || getBridgeMultiplicity(id, Direction.SOUTH) != other.getBridgeMultiplicity(otherId, Direction.SOUTH))
+                return false;
         }
-        return visited;
+        return true;
+    }
+
+    /**
+     * @return A hashCode for this board (derived from the state hash).
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(getStateHash());
     }
 
     /**
      * Resets the game (that is: removes all bridges on the board).
+     * <br><br>
+     * This also clears the journal, so the reset can't be undone.
+     *
+     * @throws UnsupportedOperationException if this board is a snapshot.
      */
-    public void reset() {
-        bridges.removeAll(bridges);
+    public void reset() throws UnsupportedOperationException {
+        ownBridges();
+        Arrays.fill(edges, null);
+        Arrays.fill(counts, 0);
+        overfull.clear();
+        incomplete.clear();
+        incomplete.set(0, islands.size());
+        if (occupancy != null)
+            Arrays.fill(occupancy, (byte) 0);
+        rebuildConnectivity();
+        bridgesHash = 0;
+        clearJournal();
+        restartChangeLog();
     }
 }
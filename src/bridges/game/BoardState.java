@@ -8,10 +8,12 @@ package bridges.game;
  * SOLVED: The board is valid and fully solved.<br>
  * UNSOLVABLE: The board is valid, but can not be solved in the
  * current configuration (that is: some bridges are incorrect).<br>
- * INCORRECT: There are islands present, which have to many bridges.
+ * INCORRECT: There are islands present, which have to many bridges.<br>
+ * UNKNOWN: The board is valid, but the solver ran out of time before
+ * it could tell, if the board is still solvable.
  *
  * @author Maik Messerschmidt
  */
 public enum BoardState {
-    NOBOARD, UNSOLVED, SOLVED, UNSOLVABLE, INCORRECT;
+    NOBOARD, UNSOLVED, SOLVED, UNSOLVABLE, INCORRECT, UNKNOWN;
 }
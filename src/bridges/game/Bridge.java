@@ -1,17 +1,16 @@
 package bridges.game;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
-import java.util.Set;
 
 /**
  * Represent a bridge between two islands in the game Bridges.
  * <p>
  * Defined as immutable object, following:
  * https://docs.oracle.com/javase/tutorial/essential/concurrency/imstrat.html
+ * <p>
+ * The order of the islands doesn't matter: They are stored sorted,
+ * so <code>new Bridge(a, b, false)</code> and <code>new Bridge(b, a, false)</code>
+ * are equal and both return the smaller island by getFirstIsland().
  *
  * @author Maik Messerschmidt
  */
@@ -19,6 +18,7 @@ final public class Bridge implements Comparable<Bridge> {
     final private Island first;
     final private Island second;
     final private boolean isDouble;
+    final private int hash;
 
     /**
      * Create a new Bridge instance.
@@ -36,19 +36,25 @@ final public class Bridge implements Comparable<Bridge> {
             throw new IllegalArgumentException("Islands must match in x or y coordinate.");
 
         this.isDouble = isDouble;
-        this.first = island1;
-        this.second = island2;
+        if (island1.compareTo(island2) <= 0) {
+            this.first = island1;
+            this.second = island2;
+        } else {
+            this.first = island2;
+            this.second = island1;
+        }
+        this.hash = 31 * (31 * first.hashCode() + second.hashCode()) + Boolean.hashCode(isDouble);
     }
 
     /**
-     * @return The first island of the bridge.
+     * @return The first (that is: the smaller) island of the bridge.
      */
     public Island getFirstIsland() {
         return first;
     }
 
     /**
-     * @return The second island of the bridge.
+     * @return The second (that is: the larger) island of the bridge.
      */
     public Island getSecondIsland() {
         return second;
@@ -103,8 +109,13 @@ final public class Bridge implements Comparable<Bridge> {
     public boolean equals(Bridge other) {
         if (other == null)
             return false;
+        else if (other == this)
+            return true;
         else
-            return compareTo(other) == 0;
+            return hash == other.hash
+                    && isDouble == other.isDouble
+                    && first.equals(other.first)
+                    && second.equals(other.second);
     }
 
     /**
@@ -112,9 +123,7 @@ final public class Bridge implements Comparable<Bridge> {
      */
     @Override
     public int hashCode() {
-        Set<Island> islands = new HashSet<Island>(
-                Arrays.asList(new Island[]{first, second}));
-        return Objects.hash(islands, isDouble);
+        return hash;
     }
 
     /**
@@ -208,12 +217,11 @@ final public class Bridge implements Comparable<Bridge> {
      * @return Whether or not a bridge with the same start and end are present.
      */
     public boolean isCovered(List<Bridge> bridges) {
-        if (bridges.contains(this))
-            return true;
-        else if (bridges.contains(new Bridge(first, second, !isDouble)))
-            return true;
-        else
-            return false;
+        for (Bridge other : bridges) {
+            if (first.equals(other.first) && second.equals(other.second))
+                return true;
+        }
+        return false;
     }
 
     /**
@@ -231,20 +239,16 @@ final public class Bridge implements Comparable<Bridge> {
      */
     @Override
     public int compareTo(Bridge other) {
-        List<Island> islands = Arrays.asList(new Island[]{
-                this.getFirstIsland(),
-                this.getSecondIsland(),
-                other.getFirstIsland(),
-                other.getSecondIsland()
-        });
-        Collections.sort(islands);
-        for (Island island : islands) {
-            if (hasIsland(island) && !other.hasIsland(island))
-                return -1;
-            else if (other.hasIsland(island) && !hasIsland(island))
-                return 1;
-        }
-        return Boolean.compare(isDouble, other.isDouble);
+        // Since both bridges store their islands sorted, comparing
+        // the first and then the second islands gives the same result
+        // as looking for the smallest island, which is only part
+        // of one of the bridges.
+        int result = first.compareTo(other.first);
+        if (result == 0)
+            result = second.compareTo(other.second);
+        if (result == 0)
+            result = Boolean.compare(isDouble, other.isDouble);
+        return result;
     }
 
     /**
@@ -0,0 +1,423 @@
+package bridges.game;
+
+import java.util.Arrays;
+
+/**
+ * Represents a board in a bridges game using primitive arrays only.
+ * <p>
+ * A CompactBoard holds the same information as a Board, but needs much
+ * less memory, which makes it suitable for keeping large numbers of
+ * puzzles in memory:
+ * <br><br>
+ * - two shorts for the coordinates of every island,<br>
+ * - a byte for the required bridge count of every island and<br>
+ * - a byte for the bridges to the eastern and southern neighbor of every island.
+ * <br><br>
+ * Islands are identified by their id, which is the same as the id of the
+ * island on the board the CompactBoard was created from (see Board.getIslandId()).
+ * The neighbors of all islands are calculated on first use and can be
+ * dropped again by calling trim().
+ * <p>
+ * The islands of a CompactBoard can't be changed, but the bridges can.
+ * The coordinates are shared between copies, so copy() only needs to
+ * copy the bridges.
+ *
+ * @author Maik Messerschmidt
+ */
+final public class CompactBoard {
+    /**
+     * The maximal width and height of a CompactBoard.
+     */
+    final public static int MAX_SIZE = Short.MAX_VALUE;
+
+    final private int width;
+    final private int height;
+    final private short[] xs;
+    final private short[] ys;
+    final private byte[] required;
+
+    /*
+     * bridges holds the number of bridges to the eastern neighbor
+     * in bits 0 and 1 and the number of bridges to the southern
+     * neighbor in bits 2 and 3 of every island.
+     */
+    final private byte[] bridges;
+
+    /*
+     * adjacency holds the id of the neighbor for every island and
+     * direction at adjacency[4 * id + direction.ordinal()] (-1, if
+     * there is none). It is calculated on first use (see neighbor()).
+     */
+    private int[] adjacency;
+
+    /**
+     * Create a new CompactBoard with the islands and bridges of the given board.
+     *
+     * @param board - the board to copy.
+     * @throws IllegalArgumentException if the board is wider or higher than MAX_SIZE.
+     */
+    public CompactBoard(Board board) throws IllegalArgumentException {
+        if (board.getWidth() > MAX_SIZE || board.getHeight() > MAX_SIZE)
+            throw new IllegalArgumentException(
+                    "CompactBoard width and height must be <= " + MAX_SIZE + ".");
+
+        int count = board.getIslandCount();
+        this.width = board.getWidth();
+        this.height = board.getHeight();
+        this.xs = new short[count];
+        this.ys = new short[count];
+        this.required = new byte[count];
+        this.bridges = new byte[count];
+
+        for (int id = 0; id < count; id++) {
+            Island island = board.getIsland(id);
+            xs[id] = (short) island.getX();
+            ys[id] = (short) island.getY();
+            required[id] = (byte) island.getRequiredBridges();
+            bridges[id] = (byte) (board.getBridgeMultiplicity(id, Direction.EAST)
+                    | board.getBridgeMultiplicity(id, Direction.SOUTH) << 2);
+        }
+    }
+
+    /**
+     * Create a new CompactBoard sharing the islands of the given board.
+     *
+     * @param other - the board to copy.
+     */
+    private CompactBoard(CompactBoard other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.xs = other.xs;
+        this.ys = other.ys;
+        this.required = other.required;
+        this.bridges = other.bridges.clone();
+        this.adjacency = other.adjacency;
+    }
+
+    /**
+     * Return a copy of this board.
+     * <br><br>
+     * The copy shares the (unchangeable) islands with this board,
+     * so only the bridges are copied.
+     *
+     * @return CompactBoard instance
+     */
+    public CompactBoard copy() {
+        return new CompactBoard(this);
+    }
+
+    /**
+     * Create a new Board with the islands and bridges of this board.
+     * <br><br>
+     * The islands of the new Board have the same ids as on this board.
+     *
+     * @return Board instance
+     */
+    public Board toBoard() {
+        Board board = new Board(width, height);
+        for (int id = 0; id < xs.length; id++)
+            board.addIsland(getIsland(id));
+
+        for (int id = 0; id < xs.length; id++) {
+            for (Direction dir : new Direction[]{Direction.EAST, Direction.SOUTH}) {
+                int count = getBridges(id, dir);
+                if (count > 0) {
+                    Island other = board.getIsland(neighbor(id, dir));
+                    board.addBridge(new Bridge(board.getIsland(id), other, count == 2));
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Replace all bridges of this board with the bridges of the given board.
+     *
+     * @param board - a board with the same islands as this board.
+     * @throws IllegalArgumentException if the islands of the given board differ from these of this board.
+     */
+    public void setBridges(Board board) throws IllegalArgumentException {
+        if (board.getIslandCount() != xs.length)
+            throw new IllegalArgumentException("Boards have a different number of islands.");
+
+        for (int id = 0; id < xs.length; id++) {
+            if (!board.getIsland(id).equals(getIsland(id)))
+                throw new IllegalArgumentException("Boards have different islands.");
+
+            bridges[id] = (byte) (board.getBridgeMultiplicity(id, Direction.EAST)
+                    | board.getBridgeMultiplicity(id, Direction.SOUTH) << 2);
+        }
+    }
+
+    /**
+     * Drop the calculated neighbors of all islands.
+     * <br><br>
+     * They are calculated again on the next call to neighbor(). Use this
+     * to bring a board down to its minimal memory usage.
+     */
+    public void trim() {
+        adjacency = null;
+    }
+
+    /**
+     * @return The width of this board.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return The height of this board.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return The island count of this board.
+     */
+    public int getIslandCount() {
+        return xs.length;
+    }
+
+    /**
+     * @param id - the id of the island.
+     * @return The x coordinate of the island.
+     */
+    public int getX(int id) {
+        return xs[id];
+    }
+
+    /**
+     * @param id - the id of the island.
+     * @return The y coordinate of the island.
+     */
+    public int getY(int id) {
+        return ys[id];
+    }
+
+    /**
+     * @param id - the id of the island.
+     * @return The required bridge count of the island.
+     */
+    public int getRequiredBridges(int id) {
+        return required[id];
+    }
+
+    /**
+     * Create an Island object for the island with the given id.
+     *
+     * @param id - the id of the island.
+     * @return A new Island instance.
+     */
+    public Island getIsland(int id) {
+        return new Island(xs[id], ys[id], required[id]);
+    }
+
+    /**
+     * Return the id of the neighbor of an island in the given direction or -1.
+     *
+     * @param id        - the id of the island.
+     * @param direction - Direction, in which a neighbor is looked for.
+     * @return The id of the neighbor or -1, if there is none.
+     */
+    public int neighbor(int id, Direction direction) {
+        if (adjacency == null)
+            adjacency = calculateAdjacency();
+        return adjacency[4 * id + direction.ordinal()];
+    }
+
+    /**
+     * Return the number of bridges between an island and its neighbor in the given direction.
+     *
+     * @param id        - the id of the island.
+     * @param direction - the direction of the neighbor.
+     * @return The number of bridges (0, 1 or 2).
+     */
+    public int getBridges(int id, Direction direction) {
+        switch (direction) {
+            case EAST:
+                return bridges[id] & 3;
+            case SOUTH:
+                return (bridges[id] >> 2) & 3;
+            default:
+                int other = neighbor(id, direction);
+                if (other == -1)
+                    return 0;
+                return getBridges(other, direction.opposite());
+        }
+    }
+
+    /**
+     * Set the number of bridges between an island and its neighbor in the given direction.
+     * <br><br>
+     * Note: Like Board.addBridge() this allows crossing bridges.
+     *
+     * @param id        - the id of the island.
+     * @param direction - the direction of the neighbor.
+     * @param count     - the number of bridges (0, 1 or 2).
+     * @throws IllegalArgumentException if the count is invalid or there is no neighbor in the given direction.
+     */
+    public void setBridges(int id, Direction direction, int count) throws IllegalArgumentException {
+        if (count < 0 || count > 2)
+            throw new IllegalArgumentException("Bridge count must be 0, 1 or 2.");
+
+        int other = neighbor(id, direction);
+        if (other == -1)
+            throw new IllegalArgumentException("Island " + id + " has no neighbor in direction " + direction + ".");
+
+        switch (direction) {
+            case EAST:
+                bridges[id] = (byte) ((bridges[id] & ~3) | count);
+                break;
+            case SOUTH:
+                bridges[id] = (byte) ((bridges[id] & 3) | count << 2);
+                break;
+            default:
+                setBridges(other, direction.opposite(), count);
+        }
+    }
+
+    /**
+     * Return the current bridge count of the island with the given id.
+     *
+     * @param id - the id of the island.
+     * @return The number of bridges connected to the island.
+     */
+    public int getBridgeCount(int id) {
+        int count = 0;
+        for (Direction dir : Direction.values())
+            count += getBridges(id, dir);
+        return count;
+    }
+
+    /**
+     * Check, if there are islands, which have more bridges than required.
+     *
+     * @return true, if at least one island has too many bridges, false otherwise.
+     */
+    public boolean hasOverfull() {
+        for (int id = 0; id < xs.length; id++) {
+            if (getBridgeCount(id) > required[id])
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Check, if any two bridges on this board cross each other.
+     *
+     * @return true, if crossing bridges are present, false otherwise.
+     */
+    public boolean hasCrossings() {
+        for (int id = 0; id < xs.length; id++) {
+            if (getBridges(id, Direction.EAST) == 0)
+                continue;
+
+            // Look for vertical bridges passing the horizontal bridge.
+            int endX = xs[neighbor(id, Direction.EAST)];
+            for (int other = 0; other < xs.length; other++) {
+                if (xs[other] <= xs[id] || xs[other] >= endX || ys[other] >= ys[id])
+                    continue;
+                if (getBridges(other, Direction.SOUTH) > 0
+                        && ys[neighbor(other, Direction.SOUTH)] > ys[id])
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check, if the islands on the board are fully connected, that
+     * is, every island can be reached from any other island
+     * by walking along the bridges on the board.
+     *
+     * @return true, if every island can be reached, false otherwise.
+     */
+    public boolean isFullyConnected() {
+        if (xs.length == 0)
+            return false;
+
+        boolean[] visited = new boolean[xs.length];
+        int[] stack = new int[xs.length];
+        int size = 0;
+        int reached = 1;
+        visited[0] = true;
+        stack[size++] = 0;
+
+        while (size > 0) {
+            int id = stack[--size];
+            for (Direction dir : Direction.values()) {
+                int other = neighbor(id, dir);
+                if (other != -1 && !visited[other] && getBridges(id, dir) > 0) {
+                    visited[other] = true;
+                    stack[size++] = other;
+                    reached++;
+                }
+            }
+        }
+        return reached == xs.length;
+    }
+
+    /**
+     * Check, if this board is complete.
+     *
+     * @return True, if all islands have exactly the required count of bridges
+     * and the board is fully connected, false otherwise.
+     */
+    public boolean isComplete() {
+        for (int id = 0; id < xs.length; id++) {
+            if (getBridgeCount(id) != required[id])
+                return false;
+        }
+        return isFullyConnected();
+    }
+
+    /**
+     * Calculate the neighbors of all islands.
+     * <br><br>
+     * Islands are sorted by row and by column, so neighbors are
+     * the islands next to each other within the same row or column.
+     *
+     * @return The adjacency array.
+     */
+    private int[] calculateAdjacency() {
+        int count = xs.length;
+        int[] result = new int[4 * count];
+        Arrays.fill(result, -1);
+
+        // Coordinates are < 2^15, so the keys sort by (major, minor, id).
+        long[] rows = new long[count];
+        long[] columns = new long[count];
+        for (int id = 0; id < count; id++) {
+            rows[id] = (long) ys[id] << 47 | (long) xs[id] << 32 | id;
+            columns[id] = (long) xs[id] << 47 | (long) ys[id] << 32 | id;
+        }
+        Arrays.sort(rows);
+        Arrays.sort(columns);
+
+        for (int i = 1; i < count; i++) {
+            link(result, rows[i - 1], rows[i], Direction.EAST);
+            link(result, columns[i - 1], columns[i], Direction.SOUTH);
+        }
+        return result;
+    }
+
+    /**
+     * Link two consecutive islands of the sorted key list, if they share a row (or column).
+     *
+     * @param adjacency - the adjacency array to fill.
+     * @param key       - the key of the first island.
+     * @param next      - the key of the following island.
+     * @param dir       - the direction from the first to the following island.
+     */
+    private static void link(int[] adjacency, long key, long next, Direction dir) {
+        if (key >>> 47 != next >>> 47)
+            return;
+
+        int id = (int) key;
+        int other = (int) next;
+        adjacency[4 * id + dir.ordinal()] = other;
+        adjacency[4 * other + dir.opposite().ordinal()] = id;
+    }
+}
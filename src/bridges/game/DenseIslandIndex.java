@@ -0,0 +1,65 @@
+package bridges.game;
+
+/**
+ * An index, which stores the island id for every position of the board.
+ * <p>
+ * Lookups are constant time, but it needs memory for every cell,
+ * so it is only suitable for boards with a reasonable size or density.
+ *
+ * @author Maik Messerschmidt
+ */
+class DenseIslandIndex implements IslandIndex {
+    final private int width;
+    final private int height;
+
+    // Island id + 1 per cell, 0 for water.
+    final private int[] cells;
+
+    /**
+     * Create a new empty DenseIslandIndex.
+     *
+     * @param width  - the width of the board.
+     * @param height - the height of the board.
+     */
+    DenseIslandIndex(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.cells = new int[width * height];
+    }
+
+    /**
+     * Create a copy of the given index.
+     *
+     * @param other - the index to copy.
+     */
+    private DenseIslandIndex(DenseIslandIndex other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.cells = other.cells.clone();
+    }
+
+    public int get(int x, int y) {
+        return cells[y * width + x] - 1;
+    }
+
+    public void put(int x, int y, int id) {
+        cells[y * width + x] = id + 1;
+    }
+
+    public int nearest(int x, int y, Direction dir) {
+        x += dir.dx;
+        y += dir.dy;
+        while (x >= 0 && y >= 0 && x < width && y < height) {
+            int cell = cells[y * width + x];
+            if (cell != 0)
+                return cell - 1;
+            x += dir.dx;
+            y += dir.dy;
+        }
+        return -1;
+    }
+
+    public IslandIndex copy() {
+        return new DenseIslandIndex(this);
+    }
+}
@@ -21,6 +21,16 @@ public enum Direction {
         this.dy = dy;
     }
 
+    /**
+     * Returns the direction pointing the other way.
+     * E.g. the opposite of Direction.EAST is Direction.WEST.
+     *
+     * @return The opposite direction.
+     */
+    public Direction opposite() {
+        return values()[(ordinal() + 2) % 4];
+    }
+
     /**
      * Returns the direction which is nearest to (dx, dy).
      * E.g. (2, -3) lies more to the north, so we return Direction.NORTH.
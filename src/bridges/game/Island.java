@@ -1,7 +1,6 @@
 package bridges.game;
 
 import java.util.List;
-import java.util.Objects;
 
 /**
  * Represent an island in the game Bridges.
@@ -15,6 +14,7 @@ final public class Island implements Comparable<Island> {
     private final int requiredBridges;
     private final int x;
     private final int y;
+    private final int hash;
 
     /**
      * Create a new Island instance.
@@ -33,6 +33,7 @@ final public class Island implements Comparable<Island> {
         this.x = x;
         this.y = y;
         this.requiredBridges = requiredBridges;
+        this.hash = 31 * (31 * (31 + x) + y) + requiredBridges;
     }
 
     /**
@@ -101,7 +102,8 @@ final public class Island implements Comparable<Island> {
         if (other == null)
             return false;
         else
-            return compareTo(other) == 0;
+            return hash == other.hash && x == other.x && y == other.y
+                    && requiredBridges == other.requiredBridges;
     }
 
     /**
@@ -109,7 +111,7 @@ final public class Island implements Comparable<Island> {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, requiredBridges);
+        return hash;
     }
 
     /**
@@ -140,8 +142,6 @@ final public class Island implements Comparable<Island> {
             return 0;
     }
 
-    ;
-
     /**
      * Check, if this island is cut by the given bridges.
      *
@@ -0,0 +1,48 @@
+package bridges.game;
+
+/**
+ * Interface for position indexes, which are used by the Board class
+ * to find islands by their coordinates.
+ * <p>
+ * Islands are identified by their id (that is: their position
+ * within the island list of the board).
+ *
+ * @author Maik Messerschmidt
+ */
+interface IslandIndex {
+    /**
+     * Return the id of the island at the given position or -1.
+     *
+     * @param x - the x coordinate (must lie on the board).
+     * @param y - the y coordinate (must lie on the board).
+     * @return The id of the island or -1, if no island is present.
+     */
+    public int get(int x, int y);
+
+    /**
+     * Register an island at the given position.
+     *
+     * @param x  - the x coordinate (must lie on the board).
+     * @param y  - the y coordinate (must lie on the board).
+     * @param id - the id of the island.
+     */
+    public void put(int x, int y, int id);
+
+    /**
+     * Return the id of the nearest island from the given
+     * position in the given direction (excluding the position itself).
+     *
+     * @param x   - the x coordinate to start from.
+     * @param y   - the y coordinate to start from.
+     * @param dir - the direction to look into.
+     * @return The id of the nearest island or -1, if there is none.
+     */
+    public int nearest(int x, int y, Direction dir);
+
+    /**
+     * Return an independent copy of this index.
+     *
+     * @return A new index with the same content.
+     */
+    public IslandIndex copy();
+}
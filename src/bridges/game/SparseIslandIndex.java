@@ -0,0 +1,159 @@
+package bridges.game;
+
+import java.util.Arrays;
+
+/**
+ * An index, which stores the islands of every row and column
+ * sorted by their coordinate.
+ * <p>
+ * Lookups use binary search within a single row or column, so the
+ * memory needed only depends on the number of islands and the
+ * height and width of the board, but not on the number of cells.
+ *
+ * @author Maik Messerschmidt
+ */
+class SparseIslandIndex implements IslandIndex {
+    final private Line[] rows;
+    final private Line[] columns;
+
+    /**
+     * Create a new empty SparseIslandIndex.
+     *
+     * @param width  - the width of the board.
+     * @param height - the height of the board.
+     */
+    SparseIslandIndex(int width, int height) {
+        this.rows = new Line[height];
+        this.columns = new Line[width];
+    }
+
+    /**
+     * Create a copy of the given index.
+     *
+     * @param other - the index to copy.
+     */
+    private SparseIslandIndex(SparseIslandIndex other) {
+        this.rows = new Line[other.rows.length];
+        this.columns = new Line[other.columns.length];
+        for (int y = 0; y < rows.length; y++) {
+            if (other.rows[y] != null)
+                rows[y] = other.rows[y].copy();
+        }
+        for (int x = 0; x < columns.length; x++) {
+            if (other.columns[x] != null)
+                columns[x] = other.columns[x].copy();
+        }
+    }
+
+    public int get(int x, int y) {
+        Line row = rows[y];
+        if (row == null)
+            return -1;
+
+        int pos = row.search(x);
+        if (pos < 0)
+            return -1;
+        return row.ids[pos];
+    }
+
+    public void put(int x, int y, int id) {
+        if (rows[y] == null)
+            rows[y] = new Line();
+        if (columns[x] == null)
+            columns[x] = new Line();
+
+        rows[y].insert(x, id);
+        columns[x].insert(y, id);
+    }
+
+    public int nearest(int x, int y, Direction dir) {
+        if (dir.dy == 0)
+            return nearest(rows[y], x, dir.dx);
+        else
+            return nearest(columns[x], y, dir.dy);
+    }
+
+    /**
+     * Return the id of the island within the given line next to the
+     * given coordinate following the given step or -1.
+     *
+     * @param line  - the row or column to search in (may be null).
+     * @param coord - the coordinate to start from.
+     * @param step  - -1 to search for smaller, +1 to search for larger coordinates.
+     * @return The id of the nearest island or -1.
+     */
+    private static int nearest(Line line, int coord, int step) {
+        if (line == null)
+            return -1;
+
+        int pos = line.search(coord);
+
+        /*
+         * If coord isn't present, binary search returns
+         * (-(insertion point) - 1), where the insertion point is
+         * the position of the first larger coordinate.
+         */
+        int next;
+        if (pos >= 0)
+            next = pos + step;
+        else if (step > 0)
+            next = -pos - 1;
+        else
+            next = -pos - 2;
+
+        if (next < 0 || next >= line.size)
+            return -1;
+        return line.ids[next];
+    }
+
+    public IslandIndex copy() {
+        return new SparseIslandIndex(this);
+    }
+
+    /**
+     * A single row or column of the index.
+     */
+    private static class Line {
+        private int[] coords = new int[2];
+        private int[] ids = new int[2];
+        private int size = 0;
+
+        /**
+         * @return An independent copy of this line.
+         */
+        private Line copy() {
+            Line line = new Line();
+            line.coords = Arrays.copyOf(coords, coords.length);
+            line.ids = Arrays.copyOf(ids, ids.length);
+            line.size = size;
+            return line;
+        }
+
+        /**
+         * @param coord - the coordinate to search.
+         * @return The result of Arrays.binarySearch() for this line.
+         */
+        private int search(int coord) {
+            return Arrays.binarySearch(coords, 0, size, coord);
+        }
+
+        /**
+         * Insert the given island id, keeping the coordinates sorted.
+         *
+         * @param coord - the coordinate of the island within this line.
+         * @param id    - the island id.
+         */
+        private void insert(int coord, int id) {
+            int pos = -search(coord) - 1;
+            if (size == coords.length) {
+                coords = Arrays.copyOf(coords, 2 * size);
+                ids = Arrays.copyOf(ids, 2 * size);
+            }
+            System.arraycopy(coords, pos, coords, pos + 1, size - pos);
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            coords[pos] = coord;
+            ids[pos] = id;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package bridges.game;
+
+/**
+ * Represents one of the eight symmetries of a rectangular board
+ * (the rotations by multiples of 90 degrees and the mirror images).
+ * <p>
+ * Every symmetry is applied in three steps: First x and y are swapped
+ * (if swap is set), then the x and/or y coordinates are mirrored
+ * (if mirrorX and/or mirrorY are set). Swapping also swaps the width
+ * and height of the board.
+ *
+ * @author Maik Messerschmidt
+ */
+public enum Symmetry {
+    IDENTITY(false, false, false),
+    MIRROR_X(false, true, false),
+    MIRROR_Y(false, false, true),
+    ROTATE_180(false, true, true),
+    TRANSPOSE(true, false, false),
+    ROTATE_90(true, true, false),
+    ROTATE_270(true, false, true),
+    ANTI_TRANSPOSE(true, true, true);
+
+    final private boolean swap;
+    final private boolean mirrorX;
+    final private boolean mirrorY;
+
+    /**
+     * @param swap    - whether or not x and y are swapped.
+     * @param mirrorX - whether or not the x coordinates are mirrored (after swapping).
+     * @param mirrorY - whether or not the y coordinates are mirrored (after swapping).
+     */
+    Symmetry(boolean swap, boolean mirrorX, boolean mirrorY) {
+        this.swap = swap;
+        this.mirrorX = mirrorX;
+        this.mirrorY = mirrorY;
+    }
+
+    /**
+     * Return the symmetry, which takes back this symmetry.
+     * E.g. the inverse of Symmetry.ROTATE_90 is Symmetry.ROTATE_270.
+     *
+     * @return The inverse symmetry.
+     */
+    public Symmetry inverse() {
+        switch (this) {
+            case ROTATE_90:
+                return ROTATE_270;
+            case ROTATE_270:
+                return ROTATE_90;
+            default:
+                return this;
+        }
+    }
+
+    /**
+     * @param width  - the width of the original board.
+     * @param height - the height of the original board.
+     * @return The width of the transformed board.
+     */
+    public int getWidth(int width, int height) {
+        return swap ? height : width;
+    }
+
+    /**
+     * @param width  - the width of the original board.
+     * @param height - the height of the original board.
+     * @return The height of the transformed board.
+     */
+    public int getHeight(int width, int height) {
+        return swap ? width : height;
+    }
+
+    /**
+     * Return the transformed x coordinate of the given position.
+     *
+     * @param x      - the x coordinate.
+     * @param y      - the y coordinate.
+     * @param width  - the width of the original board.
+     * @param height - the height of the original board.
+     * @return The x coordinate on the transformed board.
+     */
+    public int getX(int x, int y, int width, int height) {
+        int result = swap ? y : x;
+        return mirrorX ? getWidth(width, height) - 1 - result : result;
+    }
+
+    /**
+     * Return the transformed y coordinate of the given position.
+     *
+     * @param x      - the x coordinate.
+     * @param y      - the y coordinate.
+     * @param width  - the width of the original board.
+     * @param height - the height of the original board.
+     * @return The y coordinate on the transformed board.
+     */
+    public int getY(int x, int y, int width, int height) {
+        int result = swap ? x : y;
+        return mirrorY ? getHeight(width, height) - 1 - result : result;
+    }
+
+    /**
+     * Return the transformed direction.
+     * E.g. Symmetry.ROTATE_90 turns Direction.NORTH into Direction.EAST.
+     *
+     * @param direction - the direction to transform.
+     * @return The direction on the transformed board.
+     */
+    public Direction apply(Direction direction) {
+        int dx = swap ? direction.dy : direction.dx;
+        int dy = swap ? direction.dx : direction.dy;
+        return Direction.nearest(mirrorX ? -dx : dx, mirrorY ? -dy : dy);
+    }
+
+    /**
+     * Return the transformed island.
+     *
+     * @param island - the island to transform.
+     * @param width  - the width of the original board.
+     * @param height - the height of the original board.
+     * @return A new island at the transformed position with the same required bridges.
+     */
+    public Island apply(Island island, int width, int height) {
+        int x = island.getX();
+        int y = island.getY();
+        return new Island(getX(x, y, width, height), getY(x, y, width, height),
+                island.getRequiredBridges());
+    }
+
+    /**
+     * Return the transformed bridge.
+     *
+     * @param bridge - the bridge to transform.
+     * @param width  - the width of the original board.
+     * @param height - the height of the original board.
+     * @return A new bridge between the transformed islands.
+     */
+    public Bridge apply(Bridge bridge, int width, int height) {
+        return new Bridge(apply(bridge.getFirstIsland(), width, height),
+                apply(bridge.getSecondIsland(), width, height), bridge.isDouble());
+    }
+
+    /**
+     * Return the transformed board.
+     * <br><br>
+     * The islands are added in the order of their ids, so every island
+     * has the same id on the transformed board as on the given board.
+     *
+     * @param board - the board to transform.
+     * @return A new board with the transformed islands and bridges.
+     */
+    public Board apply(Board board) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        Board result = new Board(getWidth(width, height), getHeight(width, height));
+
+        for (int id = 0; id < board.getIslandCount(); id++)
+            result.addIsland(apply(board.getIsland(id), width, height));
+
+        for (Bridge bridge : board.bridges())
+            result.addBridge(apply(bridge, width, height));
+        return result;
+    }
+}
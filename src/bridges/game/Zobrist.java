@@ -0,0 +1,90 @@
+package bridges.game;
+
+/**
+ * Zobrist keys for islands and bridges.
+ * <p>
+ * Every island and every bridge (including its multiplicity) is mapped to
+ * a pseudo random 64 bit key. The hash of a board state is the XOR of the keys
+ * of all its islands and bridges, so adding or removing a single island
+ * or bridge changes the hash in constant time (see Board.getStateHash()).
+ * <p>
+ * The keys are calculated from the coordinates instead of being drawn
+ * from a random table, so they don't depend on the board size and are
+ * the same in every run of the program. That makes hashes usable as
+ * keys for caches, which outlive a single board.
+ *
+ * @author Maik Messerschmidt
+ */
+final public class Zobrist {
+    /*
+     * Distinct tags for the different kinds of keys, so an island
+     * never gets the same key as a bridge at the same position.
+     */
+    final private static long ISLAND = 0x1L << 60;
+    final private static long HORIZONTAL = 0x2L << 60;
+    final private static long VERTICAL = 0x3L << 60;
+    final private static long SIZE = 0x4L << 60;
+
+    private Zobrist() {
+    }
+
+    /**
+     * Return the key of the given island.
+     *
+     * @param island - the island.
+     * @return A 64 bit key depending on the coordinates and the required bridges of the island.
+     */
+    public static long islandKey(Island island) {
+        return mix(ISLAND | (long) island.getRequiredBridges() << 48
+                ^ (long) island.getX() << 24 ^ island.getY());
+    }
+
+    /**
+     * Return the key of the given bridge.
+     *
+     * @param bridge - the bridge (or null).
+     * @return A 64 bit key depending on the islands and the multiplicity of the bridge, 0 for null.
+     */
+    public static long bridgeKey(Bridge bridge) {
+        if (bridge == null)
+            return 0;
+
+        Island first = bridge.getFirstIsland();
+        Island second = bridge.getSecondIsland();
+        boolean horizontal = first.getY() == second.getY();
+
+        // Bridges are identified by their western (or northern) island.
+        int x = Math.min(first.getX(), second.getX());
+        int y = Math.min(first.getY(), second.getY());
+        long tag = horizontal ? HORIZONTAL : VERTICAL;
+        long multiplicity = bridge.isDouble() ? 2 : 1;
+        return mix(tag | multiplicity << 48 ^ (long) x << 24 ^ y);
+    }
+
+    /**
+     * Return the key of a board size.
+     * <br><br>
+     * Board.getStateHash() doesn't include this key, but it can be
+     * combined with it to tell apart boards of different sizes.
+     *
+     * @param width  - the width of the board.
+     * @param height - the height of the board.
+     * @return A 64 bit key depending on the width and height.
+     */
+    public static long sizeKey(int width, int height) {
+        return mix(SIZE | (long) width << 24 ^ height);
+    }
+
+    /**
+     * Scramble the bits of the given value (the finalizer of the SplitMix64 generator).
+     *
+     * @param value - the value to scramble.
+     * @return The scrambled value.
+     */
+    private static long mix(long value) {
+        value += 0x9E3779B97F4A7C15L;
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
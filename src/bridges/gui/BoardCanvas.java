@@ -259,34 +259,37 @@ public class BoardCanvas extends Canvas implements Observer {
      */
     @Override
     public void paint(Graphics g) {
-        if (!game.hasBoard())
+        // Paint a consistent state, even if the model changes meanwhile.
+        Board board = game.getSnapshot();
+        if (board == null)
             return;
 
-        paintGrid(g);
-        paintBridges(g);
-        paintIslands(g);
+        paintGrid(g, board);
+        paintBridges(g, board);
+        paintIslands(g, board);
     }
 
 
     /**
      * (Re)paint the grid.
      *
-     * @param g - the Graphics instance to draw on.
+     * @param g     - the Graphics instance to draw on.
+     * @param board - the board to draw.
      */
-    private void paintGrid(Graphics g) {
+    private void paintGrid(Graphics g, Board board) {
         // draw grid
         g.setColor(gridColor);
         // horizontal lines
-        for (int y = 0; y < game.getHeight(); y++) {
+        for (int y = 0; y < board.getHeight(); y++) {
             Point p1 = this.getPixelPosition(0, y);
-            Point p2 = this.getPixelPosition(game.getWidth() - 1, y);
+            Point p2 = this.getPixelPosition(board.getWidth() - 1, y);
             g.drawLine((int) p1.getX(), (int) p1.getY(), (int) p2.getX(), (int) p2.getY());
         }
 
         // vertical lines
-        for (int x = 0; x < game.getWidth(); x++) {
+        for (int x = 0; x < board.getWidth(); x++) {
             Point p1 = this.getPixelPosition(x, 0);
-            Point p2 = this.getPixelPosition(x, game.getHeight() - 1);
+            Point p2 = this.getPixelPosition(x, board.getHeight() - 1);
             g.drawLine((int) p1.getX(), (int) p1.getY(), (int) p2.getX(), (int) p2.getY());
         }
     }
@@ -294,12 +297,13 @@ public class BoardCanvas extends Canvas implements Observer {
     /**
      * (Re)paint the islands.
      *
-     * @param g - the Graphics instance to draw on.
+     * @param g     - the Graphics instance to draw on.
+     * @param board - the board to draw.
      */
-    private void paintIslands(Graphics g) {
-        for (Island island : game.getIslands()) {
+    private void paintIslands(Graphics g, Board board) {
+        for (Island island : board.getIslands()) {
             int required = island.getRequiredBridges();
-            int count = Bridge.count(game.getBridges(island));
+            int count = board.getBridgeCount(island);
 
             String label;
             Color labelColor;
@@ -379,10 +383,11 @@ public class BoardCanvas extends Canvas implements Observer {
     /**
      * (Re)paint all bridges.
      *
-     * @param g - the Graphics instance to draw the bridges on.
+     * @param g     - the Graphics instance to draw the bridges on.
+     * @param board - the board to draw.
      */
-    private void paintBridges(Graphics g) {
-        for (Bridge bridge : game.getBridges())
+    private void paintBridges(Graphics g, Board board) {
+        for (Bridge bridge : board.bridges())
             paintBridge(g, bridge, bridgeColor);
 
         // Draw the last bridge over the already drawn bridges.
@@ -391,7 +396,7 @@ public class BoardCanvas extends Canvas implements Observer {
 
         // Draw the planned Bridge over every other bridges.
         if (selectedBridge != null)
-            if (game.isValid(selectedBridge))
+            if (board.canAdd(selectedBridge))
                 paintBridge(g, selectedBridge, plannedBridgeColor);
             else
                 paintBridge(g, selectedBridge, invalidBridgeColor);
@@ -99,8 +99,19 @@ public class BridgesApp extends Frame implements Observer {
         menu.add(new MenuItem("Exit")).addActionListener(
                 e -> System.exit(0));
 
+        // Create the edit menu to take back (or redo) bridge changes.
+        Menu editMenu = new Menu("Edit");
+        editMenu.add(new MenuItem("Undo")).addActionListener(
+                e -> game.undo());
+        editMenu.add(new MenuItem("Redo")).addActionListener(
+                e -> game.redo());
+        editMenu.addSeparator();
+        editMenu.add(new MenuItem("Add forced bridges")).addActionListener(
+                e -> game.applyForcedBridges());
+
         MenuBar menubar = new MenuBar();
         menubar.add(menu);
+        menubar.add(editMenu);
         this.setMenuBar(menubar);
 
         /* Set layout and add components using this layout:
@@ -210,6 +221,14 @@ public class BridgesApp extends Frame implements Observer {
                             toggleSolving(false);
                             dialog = new MessageDialog(
                                     this, "Info", "Puzzle solved.");
+                            break;
+                        case UNKNOWN:
+                        case UNSOLVED:
+                            // The solver ran out of time (or the board changed meanwhile).
+                            toggleSolving(false);
+                            dialog = new MessageDialog(
+                                    this, "Info", "The solver gave up (no step found in time).");
+                            break;
                         default:
                             break;
                     }
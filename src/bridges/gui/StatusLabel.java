@@ -33,6 +33,7 @@ public class StatusLabel extends Label implements Observer {
         messages.put(BoardState.SOLVED, "Puzzle solved.");
         messages.put(BoardState.UNSOLVABLE, "Puzzle is no longer solvable.");
         messages.put(BoardState.UNSOLVED, "Puzzle not solved yet.");
+        messages.put(BoardState.UNKNOWN, "Puzzle not solved yet (solvability unknown).");
         game.addObserver(this);
 
         // Call update once, to set the correct label.
@@ -22,6 +22,7 @@ import bridges.util.BoardReader.SemanticException;
 import bridges.util.BoardReader.SyntaxException;
 import bridges.util.BoardSolver;
 import bridges.util.BoardWriter;
+import bridges.util.SolverBudget;
 
 
 /**
@@ -36,6 +37,13 @@ public class GameModel extends Observable {
     private Object lock = new Object();
     private int interval = 1000;
 
+    /*
+     * The time in milliseconds the solver may spend on a single
+     * state query and on a single solve step respectively.
+     */
+    final private static long STATE_TIMEOUT = 500;
+    final private static long STEP_TIMEOUT = 2000;
+
     public GameModel() {
     }
 
@@ -60,7 +68,7 @@ public class GameModel extends Observable {
         synchronized (lock) {
             if (board == null)
                 return false;
-            Bridge bridge = BoardSolver.nextBridge(board);
+            Bridge bridge = BoardSolver.nextBridge(board, new SolverBudget(STEP_TIMEOUT, Long.MAX_VALUE));
             if (bridge != null) {
                 /*
                  * If this is a double bridge and a single is
@@ -80,6 +88,30 @@ public class GameModel extends Observable {
         }
     }
 
+    /**
+     * Add all bridges, which are forced by the deductions of the solver, at once.
+     * <br><br>
+     * Observers are notified only once for all of these bridges. The deductions
+     * give up after a while like nextStep(), so then only the bridges found
+     * so far are added.
+     *
+     * @return The number of bridges, which have been added or replaced.
+     * @see BoardSolver#forcedBridges(Board, SolverBudget)
+     */
+    public int applyForcedBridges() {
+        synchronized (lock) {
+            if (board == null)
+                return 0;
+
+            List<Bridge> bridges = BoardSolver.forcedBridges(board, new SolverBudget(STEP_TIMEOUT, Long.MAX_VALUE));
+            for (Bridge bridge : bridges)
+                board.addBridge(bridge);
+            if (!bridges.isEmpty())
+                changeAndNotify();
+            return bridges.size();
+        }
+    }
+
     /**
      * Generates a new board.
      *
@@ -228,6 +260,26 @@ public class GameModel extends Observable {
         }
     }
 
+    /**
+     * Return a snapshot of the current board or null, if no board is present.
+     * <br><br>
+     * The snapshot can't be changed and doesn't change, when the board
+     * of this model changes, so it can be read without holding the lock
+     * of this model. Use it to read a consistent state of the board with
+     * a single call.
+     *
+     * @return A snapshot of the board or null.
+     * @see bridges.game.Board#snapshot()
+     */
+    public Board getSnapshot() {
+        synchronized (lock) {
+            if (board == null)
+                return null;
+            else
+                return board.snapshot();
+        }
+    }
+
     /**
      * Check, if a board is currently present.
      *
@@ -247,24 +299,7 @@ public class GameModel extends Observable {
      */
     public BoardState getState() {
         synchronized (lock) {
-            if (board == null)
-                return BoardState.NOBOARD;
-            else if (board.isComplete())
-                return BoardState.SOLVED;
-            else {
-                // TODO: Move this code where it belongs.
-                List<Island> islands = board.getIslands();
-                for (Island island : islands) {
-                    List<Bridge> bridges = board.bridges(island);
-                    if (island.getRequiredBridges() < Bridge.count(bridges))
-                        return BoardState.INCORRECT;
-                }
-
-                if (BoardSolver.hasStep(board))
-                    return BoardState.UNSOLVED;
-                else
-                    return BoardState.UNSOLVABLE;
-            }
+            return BoardSolver.getState(board, new SolverBudget(STATE_TIMEOUT, Long.MAX_VALUE));
         }
     }
 
@@ -300,6 +335,36 @@ public class GameModel extends Observable {
         }
     }
 
+    /**
+     * Take back the last bridge change on the board.
+     *
+     * @return true, if a change was taken back, false, if not.
+     */
+    public boolean undo() {
+        synchronized (lock) {
+            if (board != null && board.undo()) {
+                changeAndNotify();
+                return true;
+            } else
+                return false;
+        }
+    }
+
+    /**
+     * Redo the last bridge change taken back by undo().
+     *
+     * @return true, if a change was redone, false, if not.
+     */
+    public boolean redo() {
+        synchronized (lock) {
+            if (board != null && board.redo()) {
+                changeAndNotify();
+                return true;
+            } else
+                return false;
+        }
+    }
+
     /**
      * Helper method, that sets the changed value of this Observable and notifies all observers.
      */
@@ -0,0 +1,31 @@
+package bridges.util;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+
+/**
+ * Interface for algorithms which can be used by the BoardSolver class.
+ * <p>
+ * An algorithm is a single deduction rule (or a search), which finds
+ * a bridge, that belongs to every solution (or at least to one solution)
+ * of a board. The algorithms used by BoardSolver are tried in the order
+ * of an AlgorithmPipeline, so own rules can be added by implementing
+ * this interface and setting a new pipeline (see BoardSolver.setPipeline()).
+ * <p>
+ * Algorithms must not change the given board and may be called by
+ * several threads at once.
+ *
+ * @author Maik Messerschmidt
+ */
+public interface Algorithm {
+    /**
+     * Return a possible bridge for the given board or null.
+     * <br><br>
+     * Algorithms, which search, must give up, once the budget is exhausted.
+     *
+     * @param board
+     * @param budget - the budget of the search.
+     * @return A possible bridge.
+     */
+    public Bridge nextBridge(Board board, SolverBudget budget);
+}
@@ -0,0 +1,117 @@
+package bridges.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+
+/**
+ * An ordered list of algorithms, which are tried one after
+ * another, until one of them finds a bridge.
+ * <p>
+ * Cheap deduction rules should come first and searches (like
+ * ConstraintSolver or Bruteforce) last. The pipeline records
+ * statistics for every algorithm (see AlgorithmStatistics), which
+ * help to choose and order the algorithms for a set of boards:
+ * <br><br>
+ * <code>
+ * AlgorithmPipeline pipeline = new AlgorithmPipeline(new Required(), new MyRule(), new ConstraintSolver());<br>
+ * BoardSolver.setPipeline(pipeline);<br>
+ * ...<br>
+ * for (AlgorithmStatistics statistics : pipeline.getStatistics())<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;System.out.println(statistics);
+ * </code>
+ * <br><br>
+ * A pipeline can be used by several threads at once.
+ *
+ * @author Maik Messerschmidt
+ */
+public class AlgorithmPipeline {
+    final private List<Algorithm> algorithms;
+    final private List<AlgorithmStatistics> statistics;
+
+    /**
+     * Create a new pipeline.
+     *
+     * @param algorithms - the algorithms in the order they are tried.
+     * @throws IllegalArgumentException if there is no algorithm or an algorithm is null.
+     */
+    public AlgorithmPipeline(Algorithm... algorithms) throws IllegalArgumentException {
+        this(Arrays.asList(algorithms));
+    }
+
+    /**
+     * Create a new pipeline.
+     *
+     * @param algorithms - the algorithms in the order they are tried.
+     * @throws IllegalArgumentException if there is no algorithm or an algorithm is null.
+     */
+    public AlgorithmPipeline(List<Algorithm> algorithms) throws IllegalArgumentException {
+        if (algorithms.isEmpty())
+            throw new IllegalArgumentException("A pipeline needs at least one algorithm.");
+
+        List<AlgorithmStatistics> statistics = new ArrayList<AlgorithmStatistics>();
+        for (Algorithm algorithm : algorithms) {
+            if (algorithm == null)
+                throw new IllegalArgumentException("Algorithms must not be null.");
+            statistics.add(new AlgorithmStatistics(algorithm));
+        }
+
+        this.algorithms = Collections.unmodifiableList(new ArrayList<Algorithm>(algorithms));
+        this.statistics = Collections.unmodifiableList(statistics);
+    }
+
+    /**
+     * Create the default pipeline used by BoardSolver.
+     *
+     * @return A new pipeline of the Required, Isolated, Capacity, Connectivity,
+     * CrossingExclusion, Probing and ConstraintSolver algorithms.
+     */
+    public static AlgorithmPipeline createDefault() {
+        return new AlgorithmPipeline(new Required(), new Isolated(), new Capacity(),
+                new Connectivity(), new CrossingExclusion(), new Probing(), new ConstraintSolver());
+    }
+
+    /**
+     * @return The (unmodifiable) list of algorithms in the order they are tried.
+     */
+    public List<Algorithm> getAlgorithms() {
+        return algorithms;
+    }
+
+    /**
+     * @return The (unmodifiable) list of statistics in the order of the algorithms.
+     */
+    public List<AlgorithmStatistics> getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Reset the statistics of all algorithms.
+     */
+    public void resetStatistics() {
+        for (AlgorithmStatistics algorithmStatistics : statistics)
+            algorithmStatistics.reset();
+    }
+
+    /**
+     * Return the bridge of the first algorithm, which finds one.
+     *
+     * @param board  - the board to be solved.
+     * @param budget - the budget of the search.
+     * @return A bridge, which can be added to the board or null.
+     */
+    public Bridge nextBridge(Board board, SolverBudget budget) {
+        for (AlgorithmStatistics algorithmStatistics : statistics) {
+            long start = System.nanoTime();
+            Bridge bridge = algorithmStatistics.getAlgorithm().nextBridge(board, budget);
+            algorithmStatistics.record(bridge != null, System.nanoTime() - start);
+            if (bridge != null)
+                return bridge;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,85 @@
+package bridges.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of a single algorithm within an AlgorithmPipeline.
+ * <p>
+ * For every algorithm the pipeline records, how often it was called,
+ * how often it found a bridge (a hit) and how much time it took
+ * altogether. Algorithms, which are never hit, can be dropped and
+ * cheap algorithms with many hits should be tried first.
+ *
+ * @author Maik Messerschmidt
+ */
+public class AlgorithmStatistics {
+    final private Algorithm algorithm;
+    final private AtomicLong invocations = new AtomicLong();
+    final private AtomicLong hits = new AtomicLong();
+    final private AtomicLong nanos = new AtomicLong();
+
+    /**
+     * Create new (empty) statistics.
+     *
+     * @param algorithm - the algorithm the statistics belong to.
+     */
+    AlgorithmStatistics(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * @return The algorithm these statistics belong to.
+     */
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return The number of calls of the algorithm.
+     */
+    public long getInvocations() {
+        return invocations.get();
+    }
+
+    /**
+     * @return The number of calls, which returned a bridge.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return The total time spent in the algorithm in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos.get();
+    }
+
+    /**
+     * Record a single call of the algorithm.
+     *
+     * @param hit   - whether or not the call returned a bridge.
+     * @param nanos - the time the call took in nanoseconds.
+     */
+    void record(boolean hit, long nanos) {
+        invocations.incrementAndGet();
+        if (hit)
+            hits.incrementAndGet();
+        this.nanos.addAndGet(nanos);
+    }
+
+    /**
+     * Reset all counters to 0.
+     */
+    void reset() {
+        invocations.set(0);
+        hits.set(0);
+        nanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d invocations, %d hits, %.3f ms",
+                algorithm.getClass().getSimpleName(), getInvocations(), getHits(), getNanos() / 1e6);
+    }
+}
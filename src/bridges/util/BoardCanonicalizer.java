@@ -0,0 +1,138 @@
+package bridges.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import bridges.game.Board;
+import bridges.game.Island;
+import bridges.game.Symmetry;
+import bridges.game.Zobrist;
+
+/**
+ * Class that maps boards, which are rotations or mirror images of
+ * each other, onto the same canonical board.
+ * <p>
+ * Only the island layout (the size of the board and the islands)
+ * is taken into account. For every board the 8 symmetries are ranked by
+ * the fingerprint of the transformed layout and the one with the
+ * smallest fingerprint is chosen. Calculating the fingerprint is linear
+ * in the number of islands, so fingerprints are well suited for finding
+ * duplicates within large collections of puzzles (e.g. using a HashSet).
+ * <p>
+ * The chosen symmetry is returned by canonicalSymmetry(), so solutions
+ * of the canonical board can be mapped back using its inverse.
+ *
+ * @author Maik Messerschmidt
+ */
+public class BoardCanonicalizer {
+
+    /**
+     * Return the fingerprint of the island layout of the given board.
+     * <br><br>
+     * Boards, which are rotations or mirror images of each other, have
+     * the same fingerprint. Different layouts may have the same fingerprint
+     * as well, but that is very unlikely (see Zobrist).
+     *
+     * @param board - the board.
+     * @return The 64 bit fingerprint.
+     */
+    public static long fingerprint(Board board) {
+        long result = Long.MAX_VALUE;
+        for (Symmetry symmetry : Symmetry.values())
+            result = Math.min(result, fingerprint(board, symmetry));
+        return result;
+    }
+
+    /**
+     * Return the symmetry, which maps the given board onto its canonical board.
+     *
+     * @param board - the board.
+     * @return The symmetry, which leads to the smallest fingerprint.
+     */
+    public static Symmetry canonicalSymmetry(Board board) {
+        Symmetry best = Symmetry.IDENTITY;
+        long bestFingerprint = fingerprint(board, best);
+
+        for (Symmetry symmetry : Symmetry.values()) {
+            long fingerprint = fingerprint(board, symmetry);
+            if (fingerprint < bestFingerprint
+                    || fingerprint == bestFingerprint && compareLayouts(board, symmetry, best) < 0) {
+                best = symmetry;
+                bestFingerprint = fingerprint;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Return the canonical board for the given board.
+     * <br><br>
+     * The islands and bridges of the given board are transformed
+     * by canonicalSymmetry(board).
+     *
+     * @param board - the board.
+     * @return A new board, which is the same for all rotations and mirror images of the given board.
+     */
+    public static Board canonicalize(Board board) {
+        return canonicalSymmetry(board).apply(board);
+    }
+
+    /**
+     * Return the fingerprint of the island layout of the given board transformed by the given symmetry.
+     *
+     * @param board    - the board.
+     * @param symmetry - the symmetry to apply.
+     * @return The 64 bit fingerprint.
+     */
+    private static long fingerprint(Board board, Symmetry symmetry) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        long result = Zobrist.sizeKey(symmetry.getWidth(width, height), symmetry.getHeight(width, height));
+
+        for (int id = 0; id < board.getIslandCount(); id++)
+            result ^= Zobrist.islandKey(symmetry.apply(board.getIsland(id), width, height));
+        return result;
+    }
+
+    /**
+     * Compare the island layouts of the given board transformed by two symmetries.
+     * <br><br>
+     * This is only needed to break ties between equal fingerprints.
+     *
+     * @param board  - the board.
+     * @param first  - the first symmetry.
+     * @param second - the second symmetry.
+     * @return A negative number, zero or a positive number, if the first layout is
+     * less than, equal to or greater than the second.
+     */
+    private static int compareLayouts(Board board, Symmetry first, Symmetry second) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        int result = Integer.compare(first.getWidth(width, height), second.getWidth(width, height));
+        if (result != 0)
+            return result;
+
+        List<Island> firstIslands = sortedIslands(board, first);
+        List<Island> secondIslands = sortedIslands(board, second);
+        for (int i = 0; i < firstIslands.size(); i++) {
+            result = firstIslands.get(i).compareTo(secondIslands.get(i));
+            if (result != 0)
+                return result;
+        }
+        return 0;
+    }
+
+    /**
+     * @param board    - the board.
+     * @param symmetry - the symmetry to apply.
+     * @return The sorted list of the transformed islands of the board.
+     */
+    private static List<Island> sortedIslands(Board board, Symmetry symmetry) {
+        List<Island> result = new ArrayList<Island>();
+        for (int id = 0; id < board.getIslandCount(); id++)
+            result.add(symmetry.apply(board.getIsland(id), board.getWidth(), board.getHeight()));
+        Collections.sort(result);
+        return result;
+    }
+}
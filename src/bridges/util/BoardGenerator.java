@@ -214,7 +214,7 @@ public class BoardGenerator {
              */
             Board corrected = new Board(width, height);
             for (Island island : board.getIslands()) {
-                int required = Bridge.count(board.bridges(island));
+                int required = board.getBridgeCount(island);
                 corrected.addIsland(
                         new Island(island.getX(), island.getY(), required));
             }
@@ -290,15 +290,7 @@ public class BoardGenerator {
                 break;
 
             // Check other islands.
-            Island colliding = null;
-            for (Island other : board.getIslands()) {
-                if (other.collidesWith(new Island(x, y, 1))) {
-                    colliding = other;
-                    break;
-                }
-
-            }
-            if (colliding != null)
+            if (board.searchColliding(new Island(x, y, 1)) != null)
                 break;
 
             xCoords.add(x);
@@ -330,10 +322,10 @@ public class BoardGenerator {
             // bridge doesn't cross any bridge on the board
             // and the new island isn't cut by any bridges
             // already present on the board.
-            if (bridge.crosses(board.bridges()))
+            if (board.crosses(bridge))
                 continue;
 
-            if (neighbor.isCutBy(board.bridges()))
+            if (board.isCut(neighbor.getX(), neighbor.getY()))
                 continue;
 
             board.addIsland(neighbor);
@@ -0,0 +1,73 @@
+package bridges.util;
+
+import java.lang.ref.WeakReference;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+
+/**
+ * Base class for deduction rules, which look at the whole board at once
+ * (e.g. at groups of connected islands).
+ * <p>
+ * Unlike IslandRule, such a rule can't tell, which islands are affected
+ * by a change. But it remembers the last board (and its change mark, see
+ * Board.getChangeMark()), where it didn't find any bridge. So asking again
+ * without changing the board (e.g. to update the state of a game) is free.
+ * The board is only weakly referenced, so the rule never keeps it alive.
+ *
+ * @author Maik Messerschmidt
+ */
+public abstract class BoardRule implements DeductionRule {
+    /*
+     * The last board, where no bridge was found, and its change mark.
+     */
+    private volatile Checked checked = null;
+
+    /**
+     * Return a possible bridge for the given board or null.
+     * <br><br>
+     * This is only called, if the board changed since the last call, which
+     * returned null (unless the budget was exhausted during that call).
+     *
+     * @param board  - the board.
+     * @param budget - the budget of the search.
+     * @return A possible bridge.
+     */
+    protected abstract Bridge findBridge(Board board, SolverBudget budget);
+
+    /**
+     * Return a possible bridge for the given board or null.
+     *
+     * @param board
+     * @param budget - the budget of the search.
+     * @return A possible bridge.
+     */
+    public Bridge nextBridge(Board board, SolverBudget budget) {
+        long mark = board.getChangeMark();
+        Checked last = checked;
+        if (last != null && last.board.get() == board && last.mark == mark)
+            return null;
+
+        Bridge bridge = findBridge(board, budget);
+        if (bridge == null && !budget.isExhausted())
+            checked = new Checked(board, mark);
+        return bridge;
+    }
+
+    /**
+     * A (weakly referenced) board together with its change mark.
+     */
+    private static class Checked {
+        final private WeakReference<Board> board;
+        final private long mark;
+
+        /**
+         * @param board - the board.
+         * @param mark  - the change mark of the board.
+         */
+        Checked(Board board, long mark) {
+            this.board = new WeakReference<Board>(board);
+            this.mark = mark;
+        }
+    }
+}
@@ -1,379 +1,343 @@
 package bridges.util;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 import bridges.game.Board;
+import bridges.game.BoardState;
+import bridges.game.CompactBoard;
+import bridges.game.Direction;
 import bridges.game.Island;
 import bridges.game.Bridge;
 
 /**
- * Interface for algorithms which can be used by the BoardSolver class.
+ * A solver for bridges game boards.
+ * <br><br>
+ * Execute a single solve step with:
+ * <code>boolean success = BoardSolver.step(board);</code><br>
+ * Completely solve the board (if possible) with:
+ * <code>BoardSolver.solve(board);</code>
  *
  * @author Maik Messerschmidt
  */
-interface Algorithm {
+public class BoardSolver {
+    private static volatile AlgorithmPipeline pipeline = AlgorithmPipeline.createDefault();
+
     /**
-     * Return a possible bridge for the given board or null.
-     *
-     * @param board
-     * @return A possible bridge.
+     * @return The pipeline of algorithms used to find the next bridge.
      */
-    public Bridge nextBridge(Board board);
-}
+    public static AlgorithmPipeline getPipeline() {
+        return pipeline;
+    }
 
-/**
- * A solve algorithm, which simply makes use
- * of the required count of an island.
- *
- * @author Maik Messerschmidt
- */
-class Required implements Algorithm {
     /**
-     * Return a possible bridge for the given board or null.
+     * Set the pipeline of algorithms used to find the next bridge (e.g. to add own rules).
+     * <br><br>
+     * Note: This affects all users of this class. The methods solving the whole board
+     * at once (except solve(board)) always use the ConstraintSolver.
      *
-     * @param board
-     * @return A possible bridge.
+     * @param pipeline - the new pipeline.
+     * @throws IllegalArgumentException if the pipeline is null.
+     * @see AlgorithmPipeline#createDefault()
      */
-    public Bridge nextBridge(Board board) {
-        for (Island island : board.getIslands()) {
-            int required = island.getRequiredBridges();
-            List<Bridge> existing = board.bridges(island);
-
-            /*
-             * Count existing bridges and skip this island,
-             * if it already has enough. The island may have
-             * to many bridges already, if the user made a
-             * mistake.
-             */
-            if (required <= Bridge.count(existing))
-                continue;
-
-            /*
-             * This follows the strategies, described in
-             * section 2.1. and 2.2.2 of the task:
-             *
-             * 1. Collect all valid neighbors, where we can
-             *    actually build bridges to (that is: these
-             *    bridges would not cross any existing
-             *    bridges).
-             * 2. Count the number of available bridges for
-             *    each valid neighbor and add it to the
-             *    single_neighbors or double_neighbors list
-             *    depending on the numbers of bridges we can
-             *    build to them.
-             * 2. The available number of bridges that can be
-             *    build is the sum over 2 for each
-             *    double_neighbor and 1 for each single_neighbor.
-             * 3. If it is equal to the number of required bridges
-             *    we can build a bridge to any of these.
-             *    Otherwise we know, that if the
-             *    number of available bridges - 1 is
-             *    the number of required bridges we can
-             *    at least add a single bridge BUT ONLY,
-             *    if all neighbors, which we still can
-             *    build bridges to, are double neighbors.
-             *
-             * This algorithm returns the same results as the
-             * 2*n and 2*n-1 method, but also includes cases,
-             * like this one, where these methods fail:
-             *
-             *        2
-             *
-             *        4  1
-             *
-             *        1
-             *
-             * 4 < 2 * 3 and 4 < 2 * 3 - 1.
-             */
-            List<Island> singleNeighbors = new ArrayList<Island>();
-            List<Island> doubleNeighbors = new ArrayList<Island>();
-
-            for (Island neighbor : board.validNeighbors(island)) {
-                // Build a list of bridges of this neighbor, which
-                // excludes possible bridges to the current island
-                List<Bridge> neighborBridges = board.bridges(neighbor);
-                neighborBridges.remove(new Bridge(island, neighbor, false));
-                neighborBridges.remove(new Bridge(island, neighbor, true));
-
-                int count = Bridge.count(neighborBridges);
-                int remainingForNeighbor = neighbor.getRequiredBridges() - count;
-
-                if (remainingForNeighbor >= 2)
-                    doubleNeighbors.add(neighbor);
-                else if (remainingForNeighbor == 1)
-                    singleNeighbors.add(neighbor);
-            }
+    public static void setPipeline(AlgorithmPipeline pipeline) throws IllegalArgumentException {
+        if (pipeline == null)
+            throw new IllegalArgumentException("Pipeline must not be null.");
+        BoardSolver.pipeline = pipeline;
+    }
 
-            int available = 2 * doubleNeighbors.size() + singleNeighbors.size();
+    /**
+     * Check, if there exists a possible solve step for the given board.
+     *
+     * @param board - the board to be solved.
+     * @return true, if a step exists, false otherwise.
+     */
+    public static boolean hasStep(Board board) {
+        return nextBridge(board) != null;
+    }
 
-            // All neighbors need the maximum number of bridges.
-            if (required == available) {
-                for (Island neighbor : doubleNeighbors) {
-                    // Only add double bridge, if no double bridge exists.
-                    Bridge bridge = new Bridge(island, neighbor, true);
-                    if (!existing.contains(bridge))
-                        return bridge;
-                }
-                for (Island neighbor : singleNeighbors) {
-                    // Only add a bridge, if neither double nor single exists.
-                    Bridge doubleBridge = new Bridge(island, neighbor, true);
-                    Bridge bridge = new Bridge(island, neighbor, false);
-                    if (!existing.contains(bridge) && !existing.contains(doubleBridge))
-                        return bridge;
-                }
-            } else if (required == available - 1) {
-                List<Island> existingNeighbors = new ArrayList<Island>();
-                for (Bridge bridge : existing) {
-                    // This add the current island to existingNeighbors,
-                    // but this doesn't matter.
-                    existingNeighbors.add(bridge.getFirstIsland());
-                    existingNeighbors.add(bridge.getSecondIsland());
-                }
+    /**
+     * Return the state of the given board.
+     * <br><br>
+     * Deciding, if the board is still solvable, may require a search.
+     * BoardState.UNKNOWN is returned, if the budget is exhausted before
+     * the search could decide.
+     *
+     * @param board  - the board (or null).
+     * @param budget - the budget of the search.
+     * @return The state of the board.
+     * @see bridges.game.BoardState
+     */
+    public static BoardState getState(Board board, SolverBudget budget) {
+        if (board == null)
+            return BoardState.NOBOARD;
+        else if (board.isComplete())
+            return BoardState.SOLVED;
+        else if (board.hasOverfull())
+            return BoardState.INCORRECT;
+        else if (nextBridge(board, budget) != null)
+            return BoardState.UNSOLVED;
+        else if (budget.isExhausted())
+            return BoardState.UNKNOWN;
+        else
+            return BoardState.UNSOLVABLE;
+    }
 
-                singleNeighbors.removeAll(existingNeighbors);
-                if (singleNeighbors.isEmpty()) {
-                    for (Island neighbor : doubleNeighbors) {
-                        // Only add a bridge, if neither double nor single exists.
-                        Bridge doubleBridge = new Bridge(island, neighbor, true);
-                        Bridge bridge = new Bridge(island, neighbor, false);
-                        if (!existing.contains(bridge) && !existing.contains(doubleBridge))
-                            return bridge;
-                    }
-                }
-            }
+    /**
+     * Executes a single solve step on the given board _inplace_.
+     *
+     * @param board The board to be solved.
+     * @return true, if the board changed, false otherwise.
+     */
+    public static boolean step(Board board) {
+        Bridge bridge = nextBridge(board);
+        if (bridge == null)
+            return false;
+        else {
+            board.addBridge(bridge);
+            return true;
         }
+    }
 
-        return null;
+    /**
+     * Return the next possible bridge for a given board.
+     *
+     * @param board - the board to be solved.
+     * @return A bridge, which can be added to the board or null.
+     */
+    public static Bridge nextBridge(Board board) {
+        return nextBridge(board, SolverBudget.unlimited());
     }
-}
 
-/**
- * A solve algorithm which makes use of the fact, that
- * all islands must be connected (that is: none must be
- * isolated).
- *
- * @author Maik Messerschmidt
- */
-class Isolated implements Algorithm {
     /**
-     * Return a possible bridge for the given board or null.
+     * Return the next possible bridge for a given board, but give up
+     * searching, once the given budget is exhausted.
+     * <br><br>
+     * If this returns null, budget.isExhausted() tells, whether there
+     * is no bridge or the search has given up.
      *
-     * @param board
-     * @return A possible bridge.
+     * @param board  - the board to be solved.
+     * @param budget - the budget of the search.
+     * @return A bridge, which can be added to the board or null.
      */
-    public Bridge nextBridge(Board board) {
-        /*
-         * An island can be can be isolated, if it
-         * has <= 2 required bridges <= 2 and neighbors
-         * with the same number of required bridges.
-         *
-         * In this case, we can infer the need for a
-         * bridge to another neighbor if the number of
-         * neighbors is greater 1. The choice of this other
-         * bridge is unambiguous, if the number of
-         * neighbors is exactly 2.
-         */
-        for (Island island : board.getIslands()) {
-            int required = island.getRequiredBridges();
-            if (required > 2)
-                continue;
+    public static Bridge nextBridge(Board board, SolverBudget budget) {
+        return pipeline.nextBridge(board, budget);
+    }
 
-            /*
-             * Count existing bridges and skip this island,
-             * if it already has enough. The island may have
-             * to many bridges already, if the user made a
-             * mistake.
-             */
-            List<Bridge> existing = board.bridges(island);
-            if (required <= Bridge.count(existing))
-                continue;
+    /**
+     * Return all bridges, which are forced by the deductions on the given board.
+     * <br><br>
+     * The deductions are the deduction rules of the current pipeline (see DeductionRule)
+     * and the propagation of the constraints of ConstraintSolver, but no search.
+     * Both are applied to a copy of the board in turns, until neither of them
+     * finds another bridge, so the rules work incrementally on the bridges
+     * found so far instead of starting from scratch for every bridge.
+     * <br><br>
+     * Every returned bridge is the bridge, which has to be on the board in
+     * the end. So a double bridge may replace a single bridge on the board.
+     *
+     * @param board - the board to be solved.
+     * @return The forced bridges, which are not yet on the board (or an empty list).
+     */
+    public static List<Bridge> forcedBridges(Board board) {
+        return forcedBridges(board, SolverBudget.unlimited());
+    }
 
-            List<Island> neighbors = board.neighbors(island);
-            if (neighbors.size() != 2)
-                continue;
+    /**
+     * Return all bridges, which are forced by the deductions on the given board
+     * (see forcedBridges(Board)), but give up, once the given budget is exhausted.
+     * <br><br>
+     * If the budget is exhausted, the bridges found so far are returned, so
+     * budget.isExhausted() tells, whether there may be more forced bridges.
+     *
+     * @param board  - the board to be solved.
+     * @param budget - the budget of the deductions.
+     * @return The forced bridges, which are not yet on the board (or an empty list).
+     */
+    public static List<Bridge> forcedBridges(Board board, SolverBudget budget) {
+        List<DeductionRule> rules = new ArrayList<DeductionRule>();
+        for (Algorithm algorithm : pipeline.getAlgorithms()) {
+            if (algorithm instanceof DeductionRule)
+                rules.add((DeductionRule) algorithm);
+        }
 
-            Island otherIsolated = null;
-            for (Island neighbor : neighbors) {
-                if (neighbor.getRequiredBridges() == required) {
-                    otherIsolated = neighbor;
-                    break;
+        Board forced = board.copy();
+        boolean changed;
+        do {
+            changed = false;
+            for (DeductionRule rule : rules) {
+                Bridge bridge;
+                while ((bridge = rule.nextBridge(forced, budget)) != null && forced.canAdd(bridge)) {
+                    forced.addBridge(bridge);
+                    changed = true;
                 }
             }
+            changed = ConstraintSolver.addForcedBridges(forced) || changed;
+        } while (changed && !budget.isExhausted());
 
-            // Continue with next island, if no
-            // isolated neighbor was found.
-            if (otherIsolated == null)
-                continue;
-
-            // The 'good' neighbor is the one with another index.
-            int goodIndex = (neighbors.indexOf(otherIsolated) + 1) % 2;
-            Island goodNeighbor = neighbors.get(goodIndex);
-
-            // Build a new bridge, if this bridge (or a double one)
-            // doesn't already exist.
-            Bridge bridge = new Bridge(island, goodNeighbor, false);
-
-            if (!bridge.isCovered(existing))
-                return bridge;
+        List<Bridge> result = new ArrayList<Bridge>();
+        for (Bridge bridge : forced.bridges()) {
+            if (!bridge.equals(board.searchBridge(bridge.getFirstIsland(), bridge.getSecondIsland())))
+                result.add(bridge);
         }
-        return null;
+        return result;
     }
-}
 
-/**
- * A solve algorithm, which simply tries all combinations
- * of possible bridges, until a solution is found.
- *
- * @author Maik Messerschmidt
- */
-class Bruteforce implements Algorithm {
     /**
-     * Return a possible bridge for the given board or null.
+     * Count the solutions of the given board, but stop as soon as
+     * the given number of solutions has been found.
+     * <br><br>
+     * Only solutions, which contain all bridges already on the board,
+     * are counted. E.g. <code>countSolutions(board, 2) == 1</code> checks,
+     * if a board without bridges has a unique solution.
+     * <br><br>
+     * Note: Like all methods of this class, this can be called by several
+     * threads at once.
      *
-     * @param board
-     * @return A possible bridge.
+     * @param board - the board.
+     * @param limit - the maximal number of solutions to count.
+     * @return The number of solutions (at most limit).
+     * @throws IllegalArgumentException if limit is less than 1.
      */
-    public Bridge nextBridge(Board board) {
-        Board solution = board.copy();
-        if (doBruteforce(solution) == true) {
-            List<Bridge> existing = board.bridges();
-            for (Bridge bridge : solution.bridges()) {
-                if (!existing.contains(bridge))
-                    return bridge;
-            }
-        }
-        return null;
+    public static int countSolutions(Board board, int limit) throws IllegalArgumentException {
+        return countSolutions(board, limit, SolverBudget.unlimited());
     }
 
     /**
-     * Run brute force in place on the given board and return the success status.
+     * Count the solutions of the given board like countSolutions(board, limit),
+     * but give up, once the given budget is exhausted.
      *
-     * @param board - the board to solve.
-     * @return true, if a possible solution has been found and applied, false otherwise.
+     * @param board  - the board.
+     * @param limit  - the maximal number of solutions to count.
+     * @param budget - the budget of the search.
+     * @return The number of solutions (at most limit) or -1, if the budget is exhausted.
+     * @throws IllegalArgumentException if limit is less than 1.
      */
-    private boolean doBruteforce(Board board) {
-        List<Board> solutions = new ArrayList<Board>();
-        List<Island> incomplete = board.getIncomplete();
-
-        // Found a solution
-        if (incomplete.isEmpty()) {
-            if (board.isComplete())
-                return true;
-            else
-                return false;
-        }
-
-        // Try all possible bridges for all valid
-        // neighbors of the first island.
-        Island island = incomplete.get(0);
-        List<Bridge> existing = board.bridges(island);
-        List<Island> neighbors = board.validNeighbors(island);
-
-        for (Island neighbor : neighbors) {
-            // Skip islands, which already have a double bridge
-            if (existing.contains(new Bridge(island, neighbor, true)))
-                continue;
+    public static int countSolutions(Board board, int limit, SolverBudget budget)
+            throws IllegalArgumentException {
+        if (limit < 1)
+            throw new IllegalArgumentException("Limit must be >= 1.");
+        return new ConstraintSolver().countSolutions(new CompactBoard(board), limit, budget);
+    }
 
-                // Try a double bridge, if this island already has a bridge
-                // and recurse into doBruteforce, if it worked.
-            else if (existing.contains(new Bridge(island, neighbor, false))) {
-                try {
-                    Bridge bridge = new Bridge(island, neighbor, true);
-                    board.addBridge(bridge);
-                    if (doBruteforce(board) == true)
-                        return true;
-                    board.removeOneBridge(bridge);
-                } catch (IllegalArgumentException e) {
-                    continue;
-                }
-            } else {
-                // Try a single bridge, if this island has no bridge
-                // and recurse into doBruteforce, if it worked.
-                try {
-                    Bridge bridge = new Bridge(island, neighbor, false);
-                    board.addBridge(bridge);
-                    if (doBruteforce(board) == true)
-                        return true;
-                    board.removeOneBridge(bridge);
-                } catch (IllegalArgumentException e) {
-                    continue;
-                }
-            }
+    /**
+     * Solve the board (as good as we can) _inplace_.
+     *
+     * @param board - The board to be solved.
+     */
+    public static void solve(Board board) {
+        // Apply as many steps as possible, if there is no solution.
+        if (!solve(board, ConstraintModel.DEFAULT_STRATEGY, ConstraintModel.DEFAULT_ORDER)) {
+            boolean changed;
+            do {
+                changed = step(board);
+            } while (changed);
         }
+    }
 
-        return false;
+    /**
+     * Solve the board _inplace_ using the constraint solver with the given search strategy.
+     * <br><br>
+     * The board is left unchanged, if it can't be solved. Use this to
+     * compare the strategies on a set of boards.
+     *
+     * @param board    - the board to be solved.
+     * @param strategy - the strategy to choose the island to branch on.
+     * @param order    - the order, in which the possibilities are tried.
+     * @return true, if the board has been solved, false otherwise.
+     */
+    public static boolean solve(Board board, BranchingStrategy strategy, ValueOrder order) {
+        return solve(board, new ConstraintSolver(strategy, order), 1, SolverBudget.unlimited());
     }
-}
 
-/**
- * A solver for bridges game boards.
- * <br><br>
- * Execute a single solve step with:
- * <code>boolean success = BoardSolver.step(board);</code><br>
- * Completely solve the board (if possible) with:
- * <code>BoardSolver.solve(board);</code>
- *
- * @author Maik Messerschmidt
- */
-public class BoardSolver {
-    final private static List<Algorithm> ALGORITHMS = Arrays.asList(
-            new Required(),
-            new Isolated(),
-            new Bruteforce()
-    );
+    /**
+     * Solve the board _inplace_ using the constraint solver with the given number of threads.
+     * <br><br>
+     * The top levels of the search are split into tasks, which are run
+     * by a ForkJoinPool with the given parallelism. The board is left
+     * unchanged, if it can't be solved.
+     *
+     * @param board       - the board to be solved.
+     * @param parallelism - the number of threads to use (1 to search sequentially).
+     * @return true, if the board has been solved, false otherwise.
+     * @throws IllegalArgumentException if parallelism is less than 1.
+     */
+    public static boolean solve(Board board, int parallelism) throws IllegalArgumentException {
+        return solve(board, parallelism, SolverBudget.unlimited());
+    }
 
     /**
-     * Check, if there exists a possible solve step for the given board.
+     * Solve the board _inplace_ like solve(board, parallelism), but give up,
+     * once the given budget is exhausted. All threads share the budget.
+     * <br><br>
+     * If this returns false, budget.isExhausted() tells, whether the
+     * board can't be solved or the search has given up.
      *
-     * @param board - the board to be solved.
-     * @return true, if a step exists, false otherwise.
+     * @param board       - the board to be solved.
+     * @param parallelism - the number of threads to use (1 to search sequentially).
+     * @param budget      - the budget of the search.
+     * @return true, if the board has been solved, false otherwise.
+     * @throws IllegalArgumentException if parallelism is less than 1.
      */
-    public static boolean hasStep(Board board) {
-        return nextBridge(board) != null;
+    public static boolean solve(Board board, int parallelism, SolverBudget budget)
+            throws IllegalArgumentException {
+        return solve(board, new ConstraintSolver(), parallelism, budget);
     }
 
     /**
-     * Executes a single solve step on the given board _inplace_.
+     * Solve the board _inplace_ using the given constraint solver.
      *
-     * @param board The board to be solved.
-     * @return true, if the board changed, false otherwise.
+     * @param board       - the board to be solved.
+     * @param solver      - the solver to use.
+     * @param parallelism - the number of threads to use.
+     * @param budget      - the budget of the search.
+     * @return true, if the board has been solved, false otherwise.
+     * @throws IllegalArgumentException if parallelism is less than 1.
      */
-    public static boolean step(Board board) {
-        Bridge bridge = nextBridge(board);
-        if (bridge == null)
+    private static boolean solve(Board board, ConstraintSolver solver, int parallelism,
+                                 SolverBudget budget) throws IllegalArgumentException {
+        CompactBoard compact = new CompactBoard(board);
+        if (!solver.solve(compact, parallelism, budget))
             return false;
-        else {
-            board.addBridge(bridge);
-            return true;
+
+        for (int id = 0; id < compact.getIslandCount(); id++) {
+            for (Direction dir : new Direction[]{Direction.EAST, Direction.SOUTH}) {
+                int count = compact.getBridges(id, dir);
+                if (count > board.getBridgeMultiplicity(id, dir)) {
+                    Island other = compact.getIsland(compact.neighbor(id, dir));
+                    board.addBridge(new Bridge(compact.getIsland(id), other, count == 2));
+                }
+            }
         }
+        return true;
     }
 
     /**
-     * Return the next possible bridge for a given board.
+     * Solve the board _inplace_ using plain brute force with the given search strategy.
+     * <br><br>
+     * The board is left unchanged, if it can't be solved. Use this to
+     * compare the strategies on a set of boards.
      *
-     * @param board - the board to be solved.
-     * @return A bridge, which can be added to the board or null.
+     * @param board    - the board to be solved.
+     * @param strategy - the strategy to choose the island to branch on.
+     * @param order    - the order, in which the neighbors of that island are tried.
+     * @return true, if the board has been solved, false otherwise.
      */
-    public static Bridge nextBridge(Board board) {
-        for (Algorithm algorithm : ALGORITHMS) {
-            Bridge bridge = algorithm.nextBridge(board);
-            if (bridge != null)
-                return bridge;
-        }
-        return null;
+    public static boolean bruteforce(Board board, BranchingStrategy strategy, ValueOrder order) {
+        return new Bruteforce(strategy, order).doBruteforce(board, SolverBudget.unlimited());
     }
 
     /**
-     * Solve the board (as good as we can) _inplace_.
+     * Solve the compact board (as good as we can) _inplace_.
      *
      * @param board - The board to be solved.
      */
-    public static void solve(Board board) {
-        boolean changed;
-        do {
-            changed = step(board);
-        } while (changed);
+    public static void solve(CompactBoard board) {
+        if (new ConstraintSolver().solve(board))
+            return;
+
+        Board expanded = board.toBoard();
+        solve(expanded);
+        board.setBridges(expanded);
     }
 }
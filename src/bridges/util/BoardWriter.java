@@ -43,6 +43,11 @@ public class BoardWriter {
         Collections.sort(islands);
         Collections.sort(bridges);
 
+        // Map the board ids of the islands to their position in the sorted list.
+        int[] positions = new int[islands.size()];
+        for (int i = 0; i < islands.size(); i++)
+            positions[board.getIslandId(islands.get(i))] = i;
+
         // Create FIELD section
         String s = "FIELD\n";
         s += board.getWidth() + " x " + board.getHeight() + " | " + board.getIslandCount() + "\n\n";
@@ -59,10 +64,10 @@ public class BoardWriter {
                 /*
                  * DO NOTE: the Board class insures that there are only bridges present,
                  * which have corresponding islands already in the board. So the
-                 * indexOf() calls below, will always succeed.
+                 * getIslandId() calls below, will always succeed.
                  */
-                int idx1 = islands.indexOf(br.getFirstIsland());
-                int idx2 = islands.indexOf(br.getSecondIsland());
+                int idx1 = positions[board.getIslandId(br.getFirstIsland())];
+                int idx2 = positions[board.getIslandId(br.getSecondIsland())];
                 if (idx1 > idx2) {
                     int tmp = idx1;
                     idx1 = idx2;
@@ -0,0 +1,49 @@
+package bridges.util;
+
+/**
+ * Strategies to choose the island to branch on during a solver search.
+ * <p>
+ * Every candidate island is described by the number of its remaining
+ * options (the neighbors it may still get bridges to) and the number of
+ * its missing bridges. Candidates are examined in the order of their ids.
+ *
+ * @author Maik Messerschmidt
+ */
+public enum BranchingStrategy {
+    /**
+     * Branch on the first island, which still needs bridges.
+     */
+    FIRST,
+
+    /**
+     * Branch on the island with the fewest remaining options
+     * (ties are broken by the most missing bridges).
+     */
+    FEWEST_OPTIONS,
+
+    /**
+     * Branch on the island with the most missing bridges
+     * (ties are broken by the fewest remaining options).
+     */
+    MOST_MISSING;
+
+    /**
+     * Check, if a candidate is a better choice than the best candidate found so far.
+     *
+     * @param options     - the remaining options of the candidate.
+     * @param missing     - the missing bridges of the candidate.
+     * @param bestOptions - the remaining options of the best candidate so far.
+     * @param bestMissing - the missing bridges of the best candidate so far.
+     * @return true, if the candidate should replace the best candidate, false otherwise.
+     */
+    boolean prefers(int options, int missing, int bestOptions, int bestMissing) {
+        switch (this) {
+            case FEWEST_OPTIONS:
+                return options < bestOptions || options == bestOptions && missing > bestMissing;
+            case MOST_MISSING:
+                return missing > bestMissing || missing == bestMissing && options < bestOptions;
+            default:
+                return false;
+        }
+    }
+}
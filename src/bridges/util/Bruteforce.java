@@ -0,0 +1,252 @@
+package bridges.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+import bridges.game.Island;
+
+/**
+ * A solve algorithm, which simply tries all combinations
+ * of possible bridges, until a solution is found.
+ *
+ * @author Maik Messerschmidt
+ */
+public class Bruteforce implements Algorithm {
+    final private BranchingStrategy strategy;
+    final private ValueOrder order;
+
+    /**
+     * Create a new Bruteforce algorithm, which branches on the first
+     * incomplete island and tries its neighbors in their natural order.
+     */
+    public Bruteforce() {
+        this(BranchingStrategy.FIRST, ValueOrder.NATURAL);
+    }
+
+    /**
+     * Create a new Bruteforce algorithm.
+     *
+     * @param strategy - the strategy to choose the island to branch on.
+     * @param order    - the order, in which the neighbors of that island are tried.
+     */
+    public Bruteforce(BranchingStrategy strategy, ValueOrder order) {
+        this.strategy = strategy;
+        this.order = order;
+    }
+
+    /**
+     * Return a possible bridge for the given board or null.
+     *
+     * @param board
+     * @param budget - the budget of the search.
+     * @return A possible bridge.
+     */
+    public Bridge nextBridge(Board board, SolverBudget budget) {
+        Board solution = board.copy();
+        if (doBruteforce(solution, budget) == true) {
+            List<Bridge> existing = board.bridges();
+            for (Bridge bridge : solution.bridges()) {
+                if (!existing.contains(bridge))
+                    return bridge;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Run brute force in place on the given board and return the success status.
+     * <br><br>
+     * The search keeps its own stack of the islands branched on (see Frame),
+     * so the depth of the search is not limited by the stack size of the thread.
+     * The board is left unchanged, if no solution has been found, and the
+     * bridges tried by the search can't be redone (see Board.redo()).
+     *
+     * @param board  - the board to solve.
+     * @param budget - the budget, which is charged for every visited board.
+     * @return true, if a possible solution has been found and applied, false otherwise.
+     */
+    boolean doBruteforce(Board board, SolverBudget budget) {
+        Deque<Frame> stack = new ArrayDeque<Frame>();
+        int start = board.checkpoint();
+        boolean changed = false;
+        boolean descend = true;
+
+        while (true) {
+            if (descend) {
+                if (!budget.tick()) {
+                    rollback(board, start, changed);
+                    return false;
+                }
+
+                List<Island> incomplete = board.getIncomplete();
+                if (incomplete.isEmpty()) {
+                    // Found a solution
+                    if (board.isComplete())
+                        return true;
+                } else if (!isDeadEnd(board, incomplete)) {
+                    Island island = selectIsland(board, incomplete);
+                    List<Island> neighbors = board.validNeighbors(island);
+                    order.sort(board, neighbors);
+                    stack.push(new Frame(island, neighbors, board.bridges(island), board.checkpoint()));
+                }
+            }
+
+            // Try the next bridge of the topmost island.
+            Frame top = stack.peek();
+            if (top == null) {
+                rollback(board, start, changed);
+                return false;
+            }
+            board.rollback(top.checkpoint);
+            descend = top.addNextBridge(board);
+            if (!descend)
+                stack.pop();
+            changed = changed || descend;
+        }
+    }
+
+    /**
+     * Take back all bridges added by a failed search, so they can't be redone either.
+     *
+     * @param board      - the board.
+     * @param checkpoint - the checkpoint of the board before the search.
+     * @param changed    - true, if the search added any bridges (which dropped
+     *                   the changes, that could be redone before).
+     */
+    private static void rollback(Board board, int checkpoint, boolean changed) {
+        board.rollback(checkpoint);
+        if (changed)
+            board.clearRedo();
+    }
+
+    /**
+     * An island branched on by doBruteforce() together with the
+     * neighbors, which haven't been tried yet.
+     */
+    private static class Frame {
+        final private Island island;
+        final private List<Island> neighbors;
+        final private List<Bridge> existing;
+        final private int checkpoint;
+        private int next = 0;
+
+        /**
+         * @param island     - the island branched on.
+         * @param neighbors  - the valid neighbors of the island in the order they are tried.
+         * @param existing   - the bridges of the island.
+         * @param checkpoint - the checkpoint of the board before any bridge was tried.
+         */
+        Frame(Island island, List<Island> neighbors, List<Bridge> existing, int checkpoint) {
+            this.island = island;
+            this.neighbors = neighbors;
+            this.existing = existing;
+            this.checkpoint = checkpoint;
+        }
+
+        /**
+         * Add a bridge to the next neighbor, which can get another bridge.
+         *
+         * @param board - the board at the checkpoint of this frame.
+         * @return true, if a bridge has been added, false, if all neighbors have been tried.
+         */
+        boolean addNextBridge(Board board) {
+            while (next < neighbors.size()) {
+                Island neighbor = neighbors.get(next++);
+
+                // Skip islands, which already have a double bridge
+                if (existing.contains(new Bridge(island, neighbor, true)))
+                    continue;
+
+                // Try a double bridge, if this island already has a bridge
+                // and a single bridge otherwise.
+                boolean isDouble = existing.contains(new Bridge(island, neighbor, false));
+                try {
+                    board.addBridge(new Bridge(island, neighbor, isDouble));
+                    return true;
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Check, if the given board can't be completed by adding bridges.
+     * <br><br>
+     * This is the case, if<br>
+     * - an island has too many bridges,<br>
+     * - an island can't get its missing bridges from its valid neighbors
+     * (taking the missing bridges of the neighbors into account) or<br>
+     * - a group of connected islands is complete, but there are other
+     * islands (this includes two connected 1s and two 2s connected by
+     * a double bridge).
+     *
+     * @param board      - the board.
+     * @param incomplete - the incomplete islands of the board.
+     * @return true, if the board can't be completed, false, if it may be completed.
+     */
+    private boolean isDeadEnd(Board board, List<Island> incomplete) {
+        if (board.hasOverfull())
+            return true;
+
+        for (Island island : incomplete) {
+            int missing = island.getRequiredBridges() - board.getBridgeCount(island);
+            int capacity = 0;
+            for (Island neighbor : board.validNeighbors(island)) {
+                Bridge bridge = board.searchBridge(island, neighbor);
+                int free = (bridge == null) ? 2 : (bridge.isDouble() ? 0 : 1);
+                capacity += Math.min(free, neighbor.getRequiredBridges() - board.getBridgeCount(neighbor));
+            }
+            if (capacity < missing)
+                return true;
+        }
+
+        if (board.getComponentCount() > 1) {
+            for (List<Island> group : board.partition()) {
+                boolean complete = true;
+                for (Island island : group)
+                    complete = complete && island.getRequiredBridges() == board.getBridgeCount(island);
+                if (complete)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Choose the island to branch on using the strategy of this algorithm.
+     *
+     * @param board      - the board.
+     * @param incomplete - the incomplete islands of the board (must not be empty).
+     * @return The chosen island.
+     */
+    private Island selectIsland(Board board, List<Island> incomplete) {
+        Island best = incomplete.get(0);
+        if (strategy == BranchingStrategy.FIRST)
+            return best;
+
+        int bestOptions = Integer.MAX_VALUE;
+        int bestMissing = -1;
+        for (Island island : incomplete) {
+            // Neighbors without a double bridge may still get another bridge.
+            int options = 0;
+            for (Island neighbor : board.validNeighbors(island)) {
+                Bridge bridge = board.searchBridge(island, neighbor);
+                if (bridge == null || !bridge.isDouble())
+                    options++;
+            }
+            int missing = island.getRequiredBridges() - board.getBridgeCount(island);
+
+            if (bestMissing == -1 || strategy.prefers(options, missing, bestOptions, bestMissing)) {
+                best = island;
+                bestOptions = options;
+                bestMissing = missing;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,106 @@
+package bridges.util;
+
+import java.util.List;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+import bridges.game.Island;
+
+/**
+ * A solve algorithm, which compares the missing bridges of an island
+ * with the number of bridges its neighbors can still take.
+ * <br><br>
+ * The capacity of a neighbor is the number of bridges, which can still be
+ * added between the island and the neighbor. It is limited by
+ * - the bridges already present (at most 2 per neighbor),<br>
+ * - the missing bridges of the neighbor and<br>
+ * - the rule, that no pair of islands may be isolated: Two 1s can't be
+ * connected and two 2s can't be connected by a double bridge (unless they
+ * are the only islands on the board).
+ * <br><br>
+ * If the capacity of all other neighbors is less than the missing bridges,
+ * the difference has to go to the remaining neighbor. This includes the
+ * cases of Required and Isolated, but also finds single bridges
+ * like the one from 4 to the upper 2 in:
+ * <pre>
+ *        2
+ *
+ *     1  4  2
+ * </pre>
+ *
+ * @author Maik Messerschmidt
+ */
+public class Capacity extends IslandRule {
+    /**
+     * Return a possible bridge for the given island or null.
+     *
+     * @param board  - the board.
+     * @param island - the island to check.
+     * @return A possible bridge.
+     */
+    public Bridge nextBridge(Board board, Island island) {
+        int missing = island.getRequiredBridges() - board.getBridgeCount(island);
+        if (missing <= 0)
+            return null;
+
+        List<Island> neighbors = board.validNeighbors(island);
+        int[] capacities = new int[neighbors.size()];
+        int total = 0;
+        for (int i = 0; i < neighbors.size(); i++) {
+            capacities[i] = capacity(board, island, neighbors.get(i));
+            total += capacities[i];
+        }
+
+        // The board can't be solved, but it's not up to this rule to tell.
+        if (total < missing)
+            return null;
+
+        for (int i = 0; i < neighbors.size(); i++) {
+            int needed = missing - (total - capacities[i]);
+            if (needed > 0)
+                return bridgeTo(board, island, neighbors.get(i), needed);
+        }
+        return null;
+    }
+
+    /**
+     * Return the number of bridges, which can still be added between the given
+     * neighbors, taking the present bridges, the missing bridges of the neighbor
+     * and isolated pairs of 1s and 2s into account.
+     * <br><br>
+     * This doesn't check, if the bridge would cross another bridge.
+     *
+     * @param board    - the board.
+     * @param island   - the island.
+     * @param neighbor - a neighbor of the island.
+     * @return The capacity between 0 and 2.
+     */
+    static int capacity(Board board, Island island, Island neighbor) {
+        Bridge bridge = board.searchBridge(island, neighbor);
+        int existing = (bridge == null) ? 0 : (bridge.isDouble() ? 2 : 1);
+        int capacity = Math.min(2 - existing, neighbor.getRequiredBridges() - board.getBridgeCount(neighbor));
+
+        if (board.getIslandCount() > 2 && island.getRequiredBridges() == neighbor.getRequiredBridges()) {
+            if (island.getRequiredBridges() == 1)
+                capacity = 0;
+            else if (island.getRequiredBridges() == 2)
+                capacity = Math.min(capacity, 1 - existing);
+        }
+        return Math.max(capacity, 0);
+    }
+
+    /**
+     * Return the bridge, which adds the given number of bridges to the present ones.
+     *
+     * @param board    - the board.
+     * @param island   - the island.
+     * @param neighbor - a neighbor of the island.
+     * @param count    - the number of bridges to add (at least 1).
+     * @return A single or double bridge between the islands.
+     */
+    static Bridge bridgeTo(Board board, Island island, Island neighbor, int count) {
+        Bridge bridge = board.searchBridge(island, neighbor);
+        int existing = (bridge == null) ? 0 : (bridge.isDouble() ? 2 : 1);
+        return new Bridge(island, neighbor, existing + count >= 2);
+    }
+}
@@ -0,0 +1,80 @@
+package bridges.util;
+
+import java.util.List;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+import bridges.game.Island;
+
+/**
+ * A solve algorithm, which makes use of the fact, that all groups of
+ * connected islands have to be connected in the end.
+ * <br><br>
+ * This leads to two rules:<br>
+ * - No bridge may complete a group (that is: all its islands get all their
+ * bridges), unless it's the whole board. This is the rule against isolated
+ * 1-1 and 2=2 pairs (see Capacity) applied to whole groups.<br>
+ * - An exit of a group is a possible bridge from an island of the group to
+ * an island outside of it. Every group (unless it's the whole board) needs a
+ * bridge through one of its exits. So if a group has a single exit left
+ * (the "last open exit"), there has to be a bridge through it.
+ * <br><br>
+ * The first rule limits the capacity of the neighbors of an island, before
+ * it is checked like in Capacity.
+ *
+ * @author Maik Messerschmidt
+ */
+public class Connectivity extends BoardRule {
+    /**
+     * Return a possible bridge for the given board or null.
+     *
+     * @param board  - the board.
+     * @param budget - the budget of the search (unused).
+     * @return A possible bridge.
+     */
+    protected Bridge findBridge(Board board, SolverBudget budget) {
+        if (board.getComponentCount() <= 1)
+            return null;
+
+        Groups groups = new Groups(board);
+        int[] exits = new int[groups.size()];
+        Island[] from = new Island[groups.size()];
+        Island[] to = new Island[groups.size()];
+
+        for (int id = 0; id < board.getIslandCount(); id++) {
+            Island island = board.getIsland(id);
+            int missing = island.getRequiredBridges() - board.getBridgeCount(island);
+            if (missing <= 0)
+                continue;
+
+            List<Island> neighbors = board.validNeighbors(island);
+            int[] capacities = new int[neighbors.size()];
+            int total = 0;
+            for (int i = 0; i < neighbors.size(); i++) {
+                Island neighbor = neighbors.get(i);
+                capacities[i] = groups.capacity(island, neighbor);
+                total += capacities[i];
+
+                if (groups.isExit(island, neighbor)) {
+                    exits[groups.group(island)]++;
+                    from[groups.group(island)] = island;
+                    to[groups.group(island)] = neighbor;
+                }
+            }
+
+            if (total < missing)
+                continue;
+            for (int i = 0; i < neighbors.size(); i++) {
+                int needed = missing - (total - capacities[i]);
+                if (needed > 0)
+                    return Capacity.bridgeTo(board, island, neighbors.get(i), needed);
+            }
+        }
+
+        for (int group = 0; group < groups.size(); group++) {
+            if (exits[group] == 1)
+                return new Bridge(from[group], to[group], false);
+        }
+        return null;
+    }
+}
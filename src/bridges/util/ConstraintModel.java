@@ -0,0 +1,800 @@
+package bridges.util;
+
+import java.util.Arrays;
+
+import bridges.game.CompactBoard;
+import bridges.game.Direction;
+
+/**
+ * A constraint model of a board.
+ * <p>
+ * Every pair of neighbored islands is a variable (called edge), which holds
+ * the number of bridges between them. Edges are numbered like the bridges
+ * of a CompactBoard: The edge to the eastern neighbor of island id is
+ * 2 * id and the edge to its southern neighbor is 2 * id + 1.
+ * <p>
+ * The domain of every edge is an interval within {0, 1, 2}, which is
+ * narrowed by the constraints:
+ * <br><br>
+ * - The bridges of an island must add up to its required bridges.<br>
+ * - Crossing edges can't both have bridges.<br>
+ * - All islands must be connected.<br>
+ * - Two islands with 1 (or 2) required bridges can't be connected
+ * by 1 (or 2) bridges, unless there are no other islands.
+ * <br><br>
+ * The first two constraints are propagated using a worklist of islands,
+ * whose edges changed, until nothing changes any more. Every change is
+ * recorded on a trail, so backtracking only needs to take back the
+ * recorded changes.
+ * <p>
+ * Existing bridges on the board are kept (they form the lower bounds
+ * of the domains).
+ *
+ * @author Maik Messerschmidt
+ */
+class ConstraintModel {
+    /*
+     * The directions, which are used to number the edges.
+     */
+    final static Direction[] DIRECTIONS = {Direction.EAST, Direction.SOUTH};
+
+    /*
+     * The search strategy used, if none is given.
+     */
+    final static BranchingStrategy DEFAULT_STRATEGY = BranchingStrategy.FEWEST_OPTIONS;
+    final static ValueOrder DEFAULT_ORDER = ValueOrder.NATURAL;
+
+    final private CompactBoard board;
+    final private int islandCount;
+    final private BranchingStrategy strategy;
+    final private ValueOrder order;
+
+    /*
+     * The lower and upper bound of every edge. Edges between islands,
+     * which aren't neighbors, have the bounds [0, 0].
+     */
+    final private byte[] min;
+    final private byte[] max;
+
+    /*
+     * The sums of the lower and upper bounds of all edges of every island.
+     */
+    final private int[] minSum;
+    final private int[] maxSum;
+
+    /*
+     * The edges crossed by edge e are
+     * crossings[crossingStart[e]] ... crossings[crossingStart[e + 1] - 1].
+     */
+    final private int[] crossingStart;
+    final private int[] crossings;
+
+    /*
+     * The trail holds the edge and its former bounds for every change.
+     */
+    private int[] trailEdges;
+    private byte[] trailMin;
+    private byte[] trailMax;
+    private int trailSize = 0;
+
+    /*
+     * The worklist holds the islands, whose edges changed since they were
+     * last examined (as a ring buffer). Every island is queued at most once.
+     */
+    final private int[] queue;
+    final private boolean[] queued;
+    private int queueHead = 0;
+    private int queueSize = 0;
+
+    /*
+     * The explicit stack used by search() and isConnectable().
+     */
+    final private int[] stackEdges;
+    final private int[] stackMarks;
+    final private int[] stackValues;
+    final private int[] islandStack;
+    final private boolean[] visited;
+
+    /*
+     * Set, if the bridges on the board don't violate the constraints.
+     */
+    final private boolean consistent;
+
+    /**
+     * Create a new model for the given board using the default search strategy.
+     * <br><br>
+     * Note: Call propagate() before using the bounds.
+     * The bridges on the board are applied immediately.
+     *
+     * @param board - the board.
+     */
+    ConstraintModel(CompactBoard board) {
+        this(board, DEFAULT_STRATEGY, DEFAULT_ORDER);
+    }
+
+    /**
+     * Create a new model for the given board.
+     * <br><br>
+     * Note: Call propagate() before using the bounds.
+     * The bridges on the board are applied immediately.
+     *
+     * @param board    - the board.
+     * @param strategy - the strategy to choose the island to branch on.
+     * @param order    - the order, in which the neighbors and bridge counts are tried.
+     */
+    ConstraintModel(CompactBoard board, BranchingStrategy strategy, ValueOrder order) {
+        this.board = board;
+        this.islandCount = board.getIslandCount();
+        this.strategy = strategy;
+        this.order = order;
+
+        int edgeCount = 2 * islandCount;
+        this.min = new byte[edgeCount];
+        this.max = new byte[edgeCount];
+        this.minSum = new int[islandCount];
+        this.maxSum = new int[islandCount];
+        this.trailEdges = new int[Math.max(16, edgeCount)];
+        this.trailMin = new byte[trailEdges.length];
+        this.trailMax = new byte[trailEdges.length];
+        this.queue = new int[islandCount];
+        this.queued = new boolean[islandCount];
+        this.stackEdges = new int[edgeCount];
+        this.stackMarks = new int[edgeCount];
+        this.stackValues = new int[edgeCount];
+        this.islandStack = new int[islandCount];
+        this.visited = new boolean[islandCount];
+
+        for (int id = 0; id < islandCount; id++) {
+            for (Direction dir : DIRECTIONS) {
+                int other = board.neighbor(id, dir);
+                if (other == -1)
+                    continue;
+
+                int edge = edge(id, dir);
+                int bound = Math.min(2, Math.min(board.getRequiredBridges(id), board.getRequiredBridges(other)));
+
+                // Connecting two 1s (or two 2s completely) would isolate them.
+                if (islandCount > 2 && bound == board.getRequiredBridges(id)
+                        && bound == board.getRequiredBridges(other))
+                    bound--;
+
+                max[edge] = (byte) bound;
+                maxSum[id] += bound;
+                maxSum[other] += bound;
+            }
+        }
+
+        int[][] csr = calculateCrossings();
+        this.crossingStart = csr[0];
+        this.crossings = csr[1];
+
+        for (int id = 0; id < islandCount; id++)
+            enqueue(id);
+        this.consistent = applyExisting();
+    }
+
+    /**
+     * Create a copy of the given model, which shares the unchangeable
+     * structures with it.
+     * <br><br>
+     * Note: The worklist of the given model must be empty
+     * (that is: the last call to propagate() has returned).
+     *
+     * @param other - the model to copy.
+     */
+    private ConstraintModel(ConstraintModel other) {
+        this.board = other.board;
+        this.islandCount = other.islandCount;
+        this.strategy = other.strategy;
+        this.order = other.order;
+        this.min = other.min.clone();
+        this.max = other.max.clone();
+        this.minSum = other.minSum.clone();
+        this.maxSum = other.maxSum.clone();
+        this.crossingStart = other.crossingStart;
+        this.crossings = other.crossings;
+        this.trailEdges = new int[other.trailEdges.length];
+        this.trailMin = new byte[trailEdges.length];
+        this.trailMax = new byte[trailEdges.length];
+        this.queue = new int[islandCount];
+        this.queued = new boolean[islandCount];
+        this.stackEdges = new int[other.stackEdges.length];
+        this.stackMarks = new int[stackEdges.length];
+        this.stackValues = new int[stackEdges.length];
+        this.islandStack = new int[islandCount];
+        this.visited = new boolean[islandCount];
+        this.consistent = other.consistent;
+    }
+
+    /**
+     * @return An independent copy of this model (see ConstraintModel(ConstraintModel)).
+     */
+    ConstraintModel copy() {
+        return new ConstraintModel(this);
+    }
+
+    /**
+     * Return the edge of an island in the given direction.
+     *
+     * @param id        - the id of the island.
+     * @param direction - the direction (must be EAST or SOUTH).
+     * @return The number of the edge.
+     */
+    static int edge(int id, Direction direction) {
+        return 2 * id + (direction == Direction.EAST ? 0 : 1);
+    }
+
+    /**
+     * @param edge - the edge.
+     * @return true, if the edge connects two neighbored islands, false otherwise.
+     */
+    boolean isPresent(int edge) {
+        return board.neighbor(edge / 2, DIRECTIONS[edge % 2]) != -1;
+    }
+
+    /**
+     * @param edge - the edge.
+     * @return The lower bound of the number of bridges of the edge.
+     */
+    int getMin(int edge) {
+        return min[edge];
+    }
+
+    /**
+     * @param edge - the edge.
+     * @return The upper bound of the number of bridges of the edge.
+     */
+    int getMax(int edge) {
+        return max[edge];
+    }
+
+    /**
+     * Propagate all constraints until nothing changes any more.
+     *
+     * @return false, if the constraints can't be satisfied, true otherwise.
+     */
+    boolean propagate() {
+        if (islandCount == 0)
+            return false;
+
+        if (!consistent)
+            return false;
+
+        while (queueSize > 0) {
+            int id = queue[queueHead];
+            queueHead = (queueHead + 1) % islandCount;
+            queueSize--;
+            queued[id] = false;
+
+            if (!propagateIsland(id)) {
+                clearQueue();
+                return false;
+            }
+        }
+        return isConnectable();
+    }
+
+    /**
+     * Search a solution, which satisfies all constraints.
+     * <br><br>
+     * On success, the bounds of every edge are equal and hold the
+     * solution. Otherwise, the model is left as it was.
+     * propagate() must have succeeded before calling this.
+     *
+     * @return true, if a solution was found, false otherwise.
+     */
+    boolean search() {
+        return search(SolverBudget.unlimited());
+    }
+
+    /**
+     * Search a solution, which satisfies all constraints, until the given budget is exhausted.
+     * <br><br>
+     * On success, the bounds of every edge are equal and hold the
+     * solution. Otherwise, the model is left as it was.
+     * propagate() must have succeeded before calling this.
+     *
+     * @param budget - the budget of the search.
+     * @return true, if a solution was found, false, if there is none or the budget is exhausted.
+     */
+    boolean search(SolverBudget budget) {
+        return explore(1, budget) == 1;
+    }
+
+    /**
+     * Count the solutions, which satisfy all constraints, but stop
+     * as soon as the given number of solutions has been found.
+     * <br><br>
+     * The model is left as it was. propagate() must have succeeded before calling this.
+     *
+     * @param limit  - the maximal number of solutions to count.
+     * @param budget - the budget of the search.
+     * @return The number of solutions (at most limit) or -1, if the budget
+     * was exhausted before all solutions (or limit solutions) were found.
+     */
+    int countSolutions(int limit, SolverBudget budget) {
+        int mark = trailSize;
+        int count = explore(limit, budget);
+        undo(mark);
+        return (count < limit && budget.isExhausted()) ? -1 : count;
+    }
+
+    /**
+     * Search solutions until the given number of solutions has been found.
+     * <br><br>
+     * If limit solutions have been found, the bounds of every edge are
+     * equal and hold the last solution. Otherwise, the model is left as it was.
+     *
+     * @param limit  - the number of solutions to search for.
+     * @param budget - the budget, which is charged for every node.
+     * @return The number of solutions found (before the budget was exhausted).
+     */
+    private int explore(int limit, SolverBudget budget) {
+        boolean ascending = order.isAscending();
+        int count = 0;
+        int depth = 0;
+        boolean descend = true;
+
+        while (true) {
+            if (!budget.tick()) {
+                if (depth > 0)
+                    undo(stackMarks[0]);
+                return count;
+            }
+
+            if (descend) {
+                int edge = selectEdge();
+                if (edge == -1) {
+                    // All edges are fixed, so this is a solution.
+                    count++;
+                    if (count == limit || depth == 0)
+                        return count;
+                } else {
+                    stackEdges[depth] = edge;
+                    stackMarks[depth] = trailSize;
+                    stackValues[depth] = ascending ? min[edge] - 1 : max[edge] + 1;
+                    depth++;
+                }
+            }
+
+            // Try the next value of the topmost edge.
+            int top = depth - 1;
+            int edge = stackEdges[top];
+            undo(stackMarks[top]);
+            int value = ascending ? stackValues[top] + 1 : stackValues[top] - 1;
+            if (value < min[edge] || value > max[edge]) {
+                depth--;
+                if (depth == 0)
+                    return count;
+                descend = false;
+                continue;
+            }
+
+            stackValues[top] = value;
+            descend = restrict(edge, value, value) && propagate();
+            if (!descend)
+                clearQueue();
+        }
+    }
+
+    /**
+     * Select the next edge to branch on.
+     * <br><br>
+     * This chooses the open edge of the island chosen by the strategy, which
+     * is tried first by the value order (see firstEdge()), where the options
+     * of an island are its open edges.
+     *
+     * @return An edge with more than one possible value or -1, if there is none.
+     */
+    int selectEdge() {
+        int best = -1;
+        int bestOpen = Integer.MAX_VALUE;
+        int bestMissing = -1;
+
+        for (int id = 0; id < islandCount; id++) {
+            int open = 0;
+            for (Direction dir : Direction.values()) {
+                int edge = edgeTo(id, dir);
+                if (edge != -1 && min[edge] < max[edge])
+                    open++;
+            }
+            if (open == 0)
+                continue;
+
+            int missing = board.getRequiredBridges(id) - minSum[id];
+            if (best == -1 || strategy.prefers(open, missing, bestOpen, bestMissing)) {
+                best = id;
+                bestOpen = open;
+                bestMissing = missing;
+                if (strategy == BranchingStrategy.FIRST)
+                    break;
+            }
+        }
+        return (best == -1) ? -1 : firstEdge(best);
+    }
+
+    /**
+     * Return the open edge of the given island, which the value order tries first:
+     * The first one in the order of the directions (NATURAL) or the one to the
+     * neighbor, which still needs the most (MOST_FIRST) or fewest (LEAST_FIRST)
+     * bridges.
+     *
+     * @param id - the id of an island with at least one open edge.
+     * @return The open edge.
+     */
+    private int firstEdge(int id) {
+        int result = -1;
+        int resultMissing = 0;
+        for (Direction dir : Direction.values()) {
+            int edge = edgeTo(id, dir);
+            if (edge == -1 || min[edge] == max[edge])
+                continue;
+
+            int neighbor = board.neighbor(id, dir);
+            int missing = board.getRequiredBridges(neighbor) - minSum[neighbor];
+            if (result == -1 || order == ValueOrder.MOST_FIRST && missing > resultMissing
+                    || order == ValueOrder.LEAST_FIRST && missing < resultMissing) {
+                result = edge;
+                resultMissing = missing;
+            }
+            if (order == ValueOrder.NATURAL)
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Return the values of the given edge in the order, in which the search tries them.
+     *
+     * @param edge - the edge.
+     * @return The possible numbers of bridges of the edge.
+     */
+    int[] values(int edge) {
+        int[] result = new int[max[edge] - min[edge] + 1];
+        for (int i = 0; i < result.length; i++)
+            result[i] = order.isAscending() ? min[edge] + i : max[edge] - i;
+        return result;
+    }
+
+    /**
+     * Fix the number of bridges of an edge and propagate the constraints.
+     * <br><br>
+     * Note: This can't be taken back, so it should only be used on a copy.
+     *
+     * @param edge  - the edge.
+     * @param value - the number of bridges.
+     * @return false, if the constraints can't be satisfied any more, true otherwise.
+     */
+    boolean assign(int edge, int value) {
+        return narrow(edge, value, value);
+    }
+
+    /**
+     * Narrow the bounds of an edge and propagate the constraints.
+     * <br><br>
+     * Note: This can't be taken back, so it should only be used on a copy
+     * (or for bounds, which hold for all solutions).
+     *
+     * @param edge  - the edge.
+     * @param lower - the new lower bound.
+     * @param upper - the new upper bound.
+     * @return false, if the constraints can't be satisfied any more, true otherwise.
+     */
+    boolean narrow(int edge, int lower, int upper) {
+        if (restrict(edge, lower, upper) && propagate())
+            return true;
+        clearQueue();
+        return false;
+    }
+
+    /**
+     * Check, if fixing the number of bridges of an edge leads to a contradiction.
+     * <br><br>
+     * With a depth of more than 1, the next edge chosen by the strategy is
+     * fixed as well and the number of bridges fails, if all numbers of bridges
+     * of the next edge fail (up to the given depth). The model is left as it was.
+     * propagate() must have succeeded before calling this.
+     *
+     * @param edge   - the edge.
+     * @param value  - the number of bridges.
+     * @param depth  - the number of edges to fix (at least 1).
+     * @param budget - the budget, which is charged for every edge fixed.
+     * @return true, if the number of bridges can't be part of a solution, false, if
+     * it can or the budget is exhausted.
+     */
+    boolean fails(int edge, int value, int depth, SolverBudget budget) {
+        if (!budget.tick())
+            return false;
+
+        int mark = trailSize;
+        boolean failed;
+        if (!restrict(edge, value, value) || !propagate()) {
+            clearQueue();
+            failed = true;
+        } else {
+            // Fail only, if all numbers of bridges of the next edge fail.
+            int next = (depth > 1) ? selectEdge() : -1;
+            failed = false;
+            if (next != -1) {
+                failed = true;
+                for (int nextValue = min[next]; failed && nextValue <= max[next]; nextValue++)
+                    failed = fails(next, nextValue, depth - 1, budget);
+            }
+        }
+        undo(mark);
+        return failed;
+    }
+
+    /**
+     * Return the edge between an island and its neighbor in the given direction or -1.
+     *
+     * @param id        - the id of the island.
+     * @param direction - the direction of the neighbor.
+     * @return The edge or -1, if there is no neighbor.
+     */
+    private int edgeTo(int id, Direction direction) {
+        switch (direction) {
+            case EAST:
+            case SOUTH:
+                return isPresent(edge(id, direction)) ? edge(id, direction) : -1;
+            default:
+                int other = board.neighbor(id, direction);
+                return (other == -1) ? -1 : edge(other, direction.opposite());
+        }
+    }
+
+    /**
+     * Raise the lower bounds of all edges to the bridges on the board.
+     *
+     * @return false, if the bridges on the board violate the constraints, true otherwise.
+     */
+    private boolean applyExisting() {
+        for (int id = 0; id < islandCount; id++) {
+            for (Direction dir : DIRECTIONS) {
+                int count = board.getBridges(id, dir);
+                if (count > 0 && !restrict(edge(id, dir), count, 2))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Narrow the bounds of all edges of an island, so its
+     * bridges can still add up to its required bridges.
+     *
+     * @param id - the id of the island.
+     * @return false, if the required bridges can't be reached, true otherwise.
+     */
+    private boolean propagateIsland(int id) {
+        int required = board.getRequiredBridges(id);
+        if (minSum[id] > required || maxSum[id] < required)
+            return false;
+
+        for (Direction dir : Direction.values()) {
+            int edge = edgeTo(id, dir);
+            if (edge == -1 || min[edge] == max[edge])
+                continue;
+
+            // The other edges take at least (at most) the rest of their bounds.
+            int upper = required - (minSum[id] - min[edge]);
+            int lower = required - (maxSum[id] - max[edge]);
+            if (!restrict(edge, lower, upper))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Narrow the bounds of the given edge, recording the change on the trail.
+     * <br><br>
+     * If the edge gets its first bridge, all crossing edges lose their bridges.
+     *
+     * @param edge  - the edge.
+     * @param lower - the new lower bound (if it is larger than the current one).
+     * @param upper - the new upper bound (if it is smaller than the current one).
+     * @return false, if the bounds became empty, true otherwise.
+     */
+    private boolean restrict(int edge, int lower, int upper) {
+        int oldMin = min[edge];
+        int oldMax = max[edge];
+        int newMin = Math.max(oldMin, lower);
+        int newMax = Math.min(oldMax, upper);
+        if (newMin > newMax)
+            return false;
+        if (newMin == oldMin && newMax == oldMax)
+            return true;
+
+        if (trailSize == trailEdges.length) {
+            trailEdges = Arrays.copyOf(trailEdges, 2 * trailSize);
+            trailMin = Arrays.copyOf(trailMin, 2 * trailSize);
+            trailMax = Arrays.copyOf(trailMax, 2 * trailSize);
+        }
+        trailEdges[trailSize] = edge;
+        trailMin[trailSize] = (byte) oldMin;
+        trailMax[trailSize] = (byte) oldMax;
+        trailSize++;
+        setBounds(edge, newMin, newMax);
+
+        int id = edge / 2;
+        enqueue(id);
+        enqueue(board.neighbor(id, DIRECTIONS[edge % 2]));
+
+        if (oldMin == 0 && newMin > 0) {
+            for (int i = crossingStart[edge]; i < crossingStart[edge + 1]; i++) {
+                if (!restrict(crossings[i], 0, 0))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Set the bounds of an edge and update the sums of both islands.
+     *
+     * @param edge  - the edge.
+     * @param lower - the new lower bound.
+     * @param upper - the new upper bound.
+     */
+    private void setBounds(int edge, int lower, int upper) {
+        int id = edge / 2;
+        int other = board.neighbor(id, DIRECTIONS[edge % 2]);
+        int minDelta = lower - min[edge];
+        int maxDelta = upper - max[edge];
+        minSum[id] += minDelta;
+        minSum[other] += minDelta;
+        maxSum[id] += maxDelta;
+        maxSum[other] += maxDelta;
+        min[edge] = (byte) lower;
+        max[edge] = (byte) upper;
+    }
+
+    /**
+     * Take back all changes recorded after the given trail position.
+     *
+     * @param mark - the trail position.
+     */
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            trailSize--;
+            setBounds(trailEdges[trailSize], trailMin[trailSize], trailMax[trailSize]);
+        }
+    }
+
+    /**
+     * Check, if all islands can still be connected, that is: if all
+     * islands are reachable using the edges, which may have bridges.
+     *
+     * @return true, if all islands are reachable, false otherwise.
+     */
+    private boolean isConnectable() {
+        Arrays.fill(visited, false);
+        int size = 0;
+        int reached = 1;
+        visited[0] = true;
+        islandStack[size++] = 0;
+
+        while (size > 0) {
+            int id = islandStack[--size];
+            for (Direction dir : Direction.values()) {
+                int edge = edgeTo(id, dir);
+                if (edge == -1 || max[edge] == 0)
+                    continue;
+
+                int other = board.neighbor(id, dir);
+                if (!visited[other]) {
+                    visited[other] = true;
+                    islandStack[size++] = other;
+                    reached++;
+                }
+            }
+        }
+        return reached == islandCount;
+    }
+
+    /**
+     * Add the given island to the worklist, if it isn't queued already.
+     *
+     * @param id - the id of the island.
+     */
+    private void enqueue(int id) {
+        if (queued[id])
+            return;
+        queued[id] = true;
+        queue[(queueHead + queueSize) % islandCount] = id;
+        queueSize++;
+    }
+
+    /**
+     * Remove all islands from the worklist.
+     */
+    private void clearQueue() {
+        Arrays.fill(queued, false);
+        queueHead = 0;
+        queueSize = 0;
+    }
+
+    /**
+     * Calculate the crossing edges of every edge.
+     * <br><br>
+     * Vertical edges are sorted by column and top row, so the vertical edges
+     * crossing a horizontal edge can be found using binary search within
+     * every column between its islands.
+     *
+     * @return The arrays crossingStart and crossings.
+     */
+    private int[][] calculateCrossings() {
+        int verticalCount = 0;
+        long[] verticals = new long[islandCount];
+        for (int id = 0; id < islandCount; id++) {
+            if (max[edge(id, Direction.SOUTH)] > 0)
+                verticals[verticalCount++] = (long) board.getX(id) << 47 | (long) board.getY(id) << 32 | id;
+        }
+        Arrays.sort(verticals, 0, verticalCount);
+
+        // Collect all crossing pairs (horizontal edge, vertical edge).
+        int pairCount = 0;
+        int[] pairs = new int[16];
+        int[] counts = new int[2 * islandCount + 1];
+
+        for (int id = 0; id < islandCount; id++) {
+            int horizontal = edge(id, Direction.EAST);
+            if (max[horizontal] == 0)
+                continue;
+
+            int y = board.getY(id);
+            int endX = board.getX(board.neighbor(id, Direction.EAST));
+            int x = board.getX(id) + 1;
+
+            while (x < endX) {
+                // The vertical edge before the first one starting at or below
+                // row y is the only one in column x, which may pass row y.
+                int pos = search(verticals, verticalCount, (long) x << 47 | (long) y << 32);
+                if (pos > 0 && verticals[pos - 1] >>> 47 == x) {
+                    int other = (int) verticals[pos - 1];
+                    int endY = board.getY(board.neighbor(other, Direction.SOUTH));
+                    if (board.getY(other) < y && endY > y) {
+                        if (2 * pairCount == pairs.length)
+                            pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+                        pairs[2 * pairCount] = horizontal;
+                        pairs[2 * pairCount + 1] = edge(other, Direction.SOUTH);
+                        pairCount++;
+                        counts[horizontal]++;
+                        counts[edge(other, Direction.SOUTH)]++;
+                    }
+                }
+
+                // Continue with the next column, which has vertical edges.
+                pos = search(verticals, verticalCount, (long) (x + 1) << 47);
+                if (pos == verticalCount)
+                    break;
+                x = (int) (verticals[pos] >>> 47);
+            }
+        }
+
+        int[] start = new int[2 * islandCount + 1];
+        for (int edge = 0; edge < 2 * islandCount; edge++)
+            start[edge + 1] = start[edge] + counts[edge];
+
+        int[] result = new int[start[2 * islandCount]];
+        int[] fill = Arrays.copyOf(start, 2 * islandCount);
+        for (int i = 0; i < pairCount; i++) {
+            int horizontal = pairs[2 * i];
+            int vertical = pairs[2 * i + 1];
+            result[fill[horizontal]++] = vertical;
+            result[fill[vertical]++] = horizontal;
+        }
+        return new int[][]{start, result};
+    }
+
+    /**
+     * @param keys  - the sorted keys.
+     * @param count - the number of keys.
+     * @param key   - the key to search for.
+     * @return The position of the first key, which is greater than or equal to the given key.
+     */
+    private static int search(long[] keys, int count, long key) {
+        int pos = Arrays.binarySearch(keys, 0, count, key);
+        return (pos >= 0) ? pos : -pos - 1;
+    }
+}
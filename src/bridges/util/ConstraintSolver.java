@@ -0,0 +1,241 @@
+package bridges.util;
+
+import java.util.concurrent.ForkJoinPool;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+import bridges.game.CompactBoard;
+import bridges.game.Direction;
+import bridges.game.Island;
+
+/**
+ * A solve algorithm, which propagates the constraints of the
+ * game and searches the remaining possibilities with backtracking
+ * (see ConstraintModel).
+ * <br><br>
+ * Bridges, which are forced by the constraints, are returned first.
+ * Otherwise, a bridge of a solution is returned.
+ * <br><br>
+ * The last solution found is kept, so stepping through a board, which
+ * needs a search, only searches once: Later calls return the bridges of
+ * this solution as long as the bridges on the board agree with it.
+ *
+ * @author Maik Messerschmidt
+ */
+public class ConstraintSolver implements Algorithm {
+    final private BranchingStrategy strategy;
+    final private ValueOrder order;
+
+    /*
+     * The last solution found by nextBridge() (or null).
+     */
+    private volatile CompactBoard memo = null;
+
+    /**
+     * Create a new ConstraintSolver with the default search strategy.
+     */
+    public ConstraintSolver() {
+        this(ConstraintModel.DEFAULT_STRATEGY, ConstraintModel.DEFAULT_ORDER);
+    }
+
+    /**
+     * Create a new ConstraintSolver.
+     *
+     * @param strategy - the strategy to choose the island to branch on.
+     * @param order    - the order, in which the neighbors and bridge counts are tried.
+     */
+    public ConstraintSolver(BranchingStrategy strategy, ValueOrder order) {
+        this.strategy = strategy;
+        this.order = order;
+    }
+
+    /**
+     * Return a possible bridge for the given board or null.
+     * <br><br>
+     * Bridges forced by propagation are returned regardless of the budget,
+     * only the search for a solution gives up, once the budget is exhausted.
+     *
+     * @param board
+     * @param budget - the budget of the search.
+     * @return A possible bridge.
+     */
+    public Bridge nextBridge(Board board, SolverBudget budget) {
+        CompactBoard solution = memo;
+        if (solution != null) {
+            if (agrees(board, solution))
+                return firstNewBridge(board, solution);
+            memo = null;
+        }
+
+        CompactBoard compact = new CompactBoard(board);
+        ConstraintModel model = new ConstraintModel(compact, strategy, order);
+        if (!model.propagate())
+            return null;
+
+        // The lower bounds hold all bridges forced by the constraints.
+        apply(compact, model);
+        Bridge bridge = firstNewBridge(board, compact);
+        if (bridge == null && model.search(budget)) {
+            apply(compact, model);
+            memo = compact;
+            bridge = firstNewBridge(board, compact);
+        }
+        return bridge;
+    }
+
+    /**
+     * Solve the given board _inplace_, if it can be solved.
+     *
+     * @param board - the board to be solved.
+     * @return true, if a solution has been found and applied, false otherwise.
+     */
+    boolean solve(CompactBoard board) {
+        return solve(board, 1, SolverBudget.unlimited());
+    }
+
+    /**
+     * Solve the given board _inplace_ using the given number of threads, if it can be solved.
+     * <br><br>
+     * If more than one thread is used, the top levels of the search are split
+     * into tasks of a ForkJoinPool (see ParallelSearch).
+     *
+     * @param board       - the board to be solved.
+     * @param parallelism - the number of threads to use.
+     * @param budget      - the budget of the search.
+     * @return true, if a solution has been found and applied, false otherwise
+     * (that is: if there is none or the budget is exhausted).
+     * @throws IllegalArgumentException if parallelism is less than 1.
+     */
+    boolean solve(CompactBoard board, int parallelism, SolverBudget budget) throws IllegalArgumentException {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be >= 1.");
+
+        ConstraintModel model = new ConstraintModel(board, strategy, order);
+        if (!model.propagate())
+            return false;
+
+        if (parallelism == 1) {
+            if (!model.search(budget))
+                return false;
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                model = pool.invoke(new ParallelSearch(model, parallelism, budget));
+            } finally {
+                pool.shutdown();
+            }
+            if (model == null)
+                return false;
+        }
+
+        apply(board, model);
+        return true;
+    }
+
+    /**
+     * Count the solutions of the given board, but stop as soon as
+     * the given number of solutions has been found.
+     *
+     * @param board  - the board.
+     * @param limit  - the maximal number of solutions to count.
+     * @param budget - the budget of the search.
+     * @return The number of solutions (at most limit) or -1, if the budget is exhausted.
+     */
+    int countSolutions(CompactBoard board, int limit, SolverBudget budget) {
+        ConstraintModel model = new ConstraintModel(board, strategy, order);
+        if (!model.propagate())
+            return 0;
+        return model.countSolutions(limit, budget);
+    }
+
+    /**
+     * Add all bridges to the given board, which are forced by
+     * propagating the constraints (that is: without any search).
+     *
+     * @param board - the board.
+     * @return true, if any bridge has been added, false, if there is none
+     * or the constraints can't be satisfied.
+     */
+    static boolean addForcedBridges(Board board) {
+        CompactBoard compact = new CompactBoard(board);
+        ConstraintModel model = new ConstraintModel(compact);
+        if (!model.propagate())
+            return false;
+
+        boolean added = false;
+        for (int id = 0; id < compact.getIslandCount(); id++) {
+            for (Direction dir : ConstraintModel.DIRECTIONS) {
+                int edge = ConstraintModel.edge(id, dir);
+                if (model.isPresent(edge) && model.getMin(edge) > board.getBridgeMultiplicity(id, dir)) {
+                    Island other = compact.getIsland(compact.neighbor(id, dir));
+                    board.addBridge(new Bridge(compact.getIsland(id), other, model.getMin(edge) == 2));
+                    added = true;
+                }
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Set the bridges of the given board to the lower bounds of the model.
+     *
+     * @param board - the board the model was created for.
+     * @param model - the model.
+     */
+    static void apply(CompactBoard board, ConstraintModel model) {
+        for (int id = 0; id < board.getIslandCount(); id++) {
+            for (Direction dir : ConstraintModel.DIRECTIONS) {
+                int edge = ConstraintModel.edge(id, dir);
+                if (model.isPresent(edge))
+                    board.setBridges(id, dir, model.getMin(edge));
+            }
+        }
+    }
+
+    /**
+     * Check, if the given solution belongs to the given board, that is: if both
+     * have the same islands and all bridges on the board are part of the solution.
+     *
+     * @param board    - the board.
+     * @param solution - the solution.
+     * @return true, if the board agrees with the solution, false otherwise.
+     */
+    private static boolean agrees(Board board, CompactBoard solution) {
+        if (board.getWidth() != solution.getWidth() || board.getHeight() != solution.getHeight()
+                || board.getIslandCount() != solution.getIslandCount())
+            return false;
+
+        for (int id = 0; id < solution.getIslandCount(); id++) {
+            Island island = board.getIsland(id);
+            if (island.getX() != solution.getX(id) || island.getY() != solution.getY(id)
+                    || island.getRequiredBridges() != solution.getRequiredBridges(id))
+                return false;
+
+            for (Direction dir : ConstraintModel.DIRECTIONS) {
+                if (board.getBridgeMultiplicity(id, dir) > solution.getBridges(id, dir))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return a bridge of the target, which isn't on the board yet.
+     *
+     * @param board  - the board.
+     * @param target - a compact board with the same islands and (at least) the bridges of the board.
+     * @return A new single or double bridge or null.
+     */
+    static Bridge firstNewBridge(Board board, CompactBoard target) {
+        for (int id = 0; id < target.getIslandCount(); id++) {
+            for (Direction dir : ConstraintModel.DIRECTIONS) {
+                int count = target.getBridges(id, dir);
+                if (count > board.getBridgeMultiplicity(id, dir)) {
+                    return new Bridge(target.getIsland(id),
+                            target.getIsland(target.neighbor(id, dir)), count == 2);
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,140 @@
+package bridges.util;
+
+import java.util.List;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+import bridges.game.Island;
+
+/**
+ * A solve algorithm, which rules out bridges, because they would cross
+ * bridges, that are needed elsewhere.
+ * <br><br>
+ * A possible bridge between two islands is excluded, if it would cross<br>
+ * - a bridge, which one of its islands can't do without or<br>
+ * - all remaining exits of a group of connected islands (see Connectivity).
+ * <br><br>
+ * The capacities of all excluded bridges are dropped, before an island
+ * is checked like in Connectivity. Most bridges needed elsewhere are
+ * found by Capacity and Connectivity directly, so this rule should
+ * come after them.
+ *
+ * @author Maik Messerschmidt
+ */
+public class CrossingExclusion extends BoardRule {
+    /**
+     * Return a possible bridge for the given board or null.
+     *
+     * @param board  - the board.
+     * @param budget - the budget of the search (unused).
+     * @return A possible bridge.
+     */
+    protected Bridge findBridge(Board board, SolverBudget budget) {
+        int count = board.getIslandCount();
+        Groups groups = new Groups(board);
+        int[] missing = new int[count];
+        int[] totals = new int[count];
+        int[] exits = new int[groups.size()];
+
+        for (int id = 0; id < count; id++) {
+            Island island = board.getIsland(id);
+            missing[id] = island.getRequiredBridges() - board.getBridgeCount(island);
+            if (missing[id] <= 0)
+                continue;
+
+            for (Island neighbor : board.validNeighbors(island)) {
+                totals[id] += groups.capacity(island, neighbor);
+                if (groups.isExit(island, neighbor))
+                    exits[groups.group(island)]++;
+            }
+        }
+
+        for (int id = 0; id < count; id++) {
+            if (missing[id] <= 0)
+                continue;
+
+            Island island = board.getIsland(id);
+            List<Island> neighbors = board.validNeighbors(island);
+            int[] capacities = new int[neighbors.size()];
+            int total = 0;
+            for (int i = 0; i < neighbors.size(); i++) {
+                Island neighbor = neighbors.get(i);
+                capacities[i] = groups.capacity(island, neighbor);
+                if (capacities[i] > 0 && board.searchBridge(island, neighbor) == null
+                        && isExcluded(board, groups, island, neighbor, missing, totals, exits))
+                    capacities[i] = 0;
+                total += capacities[i];
+            }
+
+            if (total < missing[id])
+                continue;
+            for (int i = 0; i < neighbors.size(); i++) {
+                int needed = missing[id] - (total - capacities[i]);
+                if (needed > 0)
+                    return Capacity.bridgeTo(board, island, neighbors.get(i), needed);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check, if a bridge between the given islands would cross a needed bridge
+     * or all exits of a group.
+     *
+     * @param board    - the board.
+     * @param groups   - the groups of the board.
+     * @param island   - the island.
+     * @param neighbor - a valid neighbor of the island without a bridge to it.
+     * @param missing  - the missing bridges of every island.
+     * @param totals   - the capacity of all valid neighbors of every incomplete island.
+     * @param exits    - the number of exits of every group.
+     * @return true, if the bridge can't be part of a solution.
+     */
+    private static boolean isExcluded(Board board, Groups groups, Island island, Island neighbor,
+                                      int[] missing, int[] totals, int[] exits) {
+        int[] crossed = new int[exits.length];
+
+        for (Bridge crossing : board.crossingBridges(island, neighbor)) {
+            if (board.crosses(crossing))
+                continue;
+
+            Island first = crossing.getFirstIsland();
+            Island second = crossing.getSecondIsland();
+            if (isNeeded(board, groups, first, second, missing, totals)
+                    || isNeeded(board, groups, second, first, missing, totals))
+                return true;
+
+            if (groups.isExit(first, second)) {
+                crossed[groups.group(first)]++;
+                crossed[groups.group(second)]++;
+            }
+        }
+
+        if (groups.size() > 1) {
+            int own = groups.group(island);
+            int other = groups.group(neighbor);
+            for (int group = 0; group < exits.length; group++) {
+                if (group != own && group != other && exits[group] > 0 && crossed[group] == exits[group])
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check, if the given island can't get all its bridges without the given neighbor.
+     *
+     * @param board    - the board.
+     * @param groups   - the groups of the board.
+     * @param island   - the island.
+     * @param neighbor - a valid neighbor of the island.
+     * @param missing  - the missing bridges of every island.
+     * @param totals   - the capacity of all valid neighbors of every incomplete island.
+     * @return true, if the island needs a bridge to the neighbor.
+     */
+    private static boolean isNeeded(Board board, Groups groups, Island island, Island neighbor,
+                                    int[] missing, int[] totals) {
+        int id = board.getIslandId(island);
+        return missing[id] > 0 && missing[id] > totals[id] - groups.capacity(island, neighbor);
+    }
+}
@@ -0,0 +1,15 @@
+package bridges.util;
+
+/**
+ * Interface for algorithms, which deduce bridges without any search.
+ * <p>
+ * A deduction rule may only return bridges, which are part of every
+ * solution of the board (containing the bridges already on the board).
+ * So the bridges of all deduction rules can be added at once (see
+ * BoardSolver.forcedBridges()). Rules should be cheap, since they are
+ * tried before any search.
+ *
+ * @author Maik Messerschmidt
+ */
+public interface DeductionRule extends Algorithm {
+}
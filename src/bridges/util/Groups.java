@@ -0,0 +1,87 @@
+package bridges.util;
+
+import java.util.List;
+
+import bridges.game.Board;
+import bridges.game.Island;
+
+/**
+ * The groups of connected islands of a board (see Board.partition()) and
+ * the capacities between them.
+ *
+ * @author Maik Messerschmidt
+ */
+class Groups {
+    final private Board board;
+    final private int[] groups;
+    final private int[] missing;
+
+    /**
+     * @param board - the board.
+     */
+    Groups(Board board) {
+        this.board = board;
+        this.groups = new int[board.getIslandCount()];
+
+        List<List<Island>> partition = board.partition();
+        this.missing = new int[partition.size()];
+        for (int group = 0; group < partition.size(); group++) {
+            for (Island island : partition.get(group)) {
+                groups[board.getIslandId(island)] = group;
+                missing[group] += Math.max(island.getRequiredBridges() - board.getBridgeCount(island), 0);
+            }
+        }
+    }
+
+    /**
+     * @return The number of groups.
+     */
+    int size() {
+        return missing.length;
+    }
+
+    /**
+     * @param island - an island of the board.
+     * @return The group of the island.
+     */
+    int group(Island island) {
+        return groups[board.getIslandId(island)];
+    }
+
+    /**
+     * Return the number of bridges, which can still be added between the given
+     * neighbors (see Capacity.capacity()) without completing the group, they
+     * would belong to, unless it's the whole board.
+     *
+     * @param island   - the island.
+     * @param neighbor - a neighbor of the island.
+     * @return The capacity between 0 and 2.
+     */
+    int capacity(Island island, Island neighbor) {
+        int capacity = Capacity.capacity(board, island, neighbor);
+        int first = group(island);
+        int second = group(neighbor);
+
+        int groupCount = (first == second) ? size() : size() - 1;
+        if (groupCount == 1)
+            return capacity;
+
+        // Every bridge takes one of the missing bridges of both islands.
+        int groupMissing = (first == second) ? missing[first] : missing[first] + missing[second];
+        return Math.min(capacity, (groupMissing - 1) / 2);
+    }
+
+    /**
+     * Check, if a bridge between the given islands would connect two groups.
+     * Crossings with bridges on the board aren't checked.
+     *
+     * @param island   - the island.
+     * @param neighbor - a neighbor of the island.
+     * @return true, if the islands are in different groups and both can take the bridge.
+     */
+    boolean isExit(Island island, Island neighbor) {
+        return group(island) != group(neighbor)
+                && island.getRequiredBridges() > board.getBridgeCount(island)
+                && capacity(island, neighbor) > 0;
+    }
+}
@@ -0,0 +1,112 @@
+package bridges.util;
+
+import java.lang.ref.WeakReference;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+import bridges.game.Island;
+
+/**
+ * Base class for deduction rules, which look at a single island at a time.
+ * <p>
+ * The result of such a rule for an island may only depend on the bridges of
+ * the island, its valid neighbors and the bridges of its neighbors. Then the
+ * result can only change, if the island is affected by a bridge change (see
+ * Board.collectChangedIslands()).
+ * <p>
+ * So instead of checking all islands on every call, the rule keeps a worklist
+ * of dirty islands for the last board it was used with: An island is dirty,
+ * until the rule has checked it without finding a bridge, and it gets dirty
+ * again, once a change of the board affects it. Solving a board step by step
+ * thereby only checks the islands around the bridges added by the steps.
+ *
+ * @author Maik Messerschmidt
+ */
+public abstract class IslandRule implements DeductionRule {
+    /*
+     * The worklist for the last board (or null, while it is used by a thread).
+     */
+    final private AtomicReference<Worklist> worklist = new AtomicReference<Worklist>();
+
+    /**
+     * Return a possible bridge for the given island or null.
+     *
+     * @param board  - the board.
+     * @param island - the island to check.
+     * @return A possible bridge.
+     */
+    public abstract Bridge nextBridge(Board board, Island island);
+
+    /**
+     * Return a possible bridge for the given board or null.
+     * <br><br>
+     * The islands are checked in the order of their ids, but
+     * islands, which haven't changed since the last call, are skipped.
+     *
+     * @param board
+     * @param budget - the budget of the search (unused).
+     * @return A possible bridge.
+     */
+    public Bridge nextBridge(Board board, SolverBudget budget) {
+        // Take the worklist, so no other thread can use it at the same time.
+        // Another thread simply starts with a new worklist for its board.
+        Worklist list = worklist.getAndSet(null);
+        if (list == null || !list.update(board))
+            list = new Worklist(board);
+
+        try {
+            BitSet dirty = list.dirty;
+            for (int id = dirty.nextSetBit(0); id != -1; id = dirty.nextSetBit(id + 1)) {
+                Bridge bridge = nextBridge(board, board.getIsland(id));
+                if (bridge != null)
+                    return bridge;
+                dirty.clear(id);
+            }
+            return null;
+        } finally {
+            worklist.set(list);
+        }
+    }
+}
+
+/**
+ * The dirty islands of a board for an IslandRule.
+ * <br><br>
+ * The rules live as long as the pipeline of BoardSolver, so the board is only
+ * weakly referenced: A worklist never keeps a board alive, which has been
+ * dropped (e.g. by loading a new game).
+ *
+ * @author Maik Messerschmidt
+ */
+class Worklist {
+    final private WeakReference<Board> board;
+    final BitSet dirty = new BitSet();
+    private long mark;
+
+    /**
+     * Create a new worklist, where all islands of the given board are dirty.
+     *
+     * @param board - the board.
+     */
+    Worklist(Board board) {
+        this.board = new WeakReference<Board>(board);
+        this.mark = board.getChangeMark();
+        dirty.set(0, board.getIslandCount());
+    }
+
+    /**
+     * Add the islands affected by the changes since the last update.
+     *
+     * @param board - the board to be checked next.
+     * @return true, if the worklist is up to date, false, if it doesn't belong
+     * to the given board or the changes are no longer known.
+     */
+    boolean update(Board board) {
+        if (board != this.board.get() || !board.collectChangedIslands(mark, dirty))
+            return false;
+        mark = board.getChangeMark();
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+package bridges.util;
+
+import java.util.List;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+import bridges.game.Island;
+
+/**
+ * A solve algorithm which makes use of the fact, that
+ * all islands must be connected (that is: none must be
+ * isolated).
+ * <br><br>
+ * Only the bridges of an island are taken into account, so the
+ * rule is checked for changed islands only (see IslandRule).
+ *
+ * @author Maik Messerschmidt
+ */
+public class Isolated extends IslandRule {
+    /**
+     * Return a possible bridge for the given island or null.
+     *
+     * @param board  - the board.
+     * @param island - the island to check.
+     * @return A possible bridge.
+     */
+    public Bridge nextBridge(Board board, Island island) {
+        /*
+         * An island can be can be isolated, if it
+         * has <= 2 required bridges <= 2 and neighbors
+         * with the same number of required bridges.
+         *
+         * In this case, we can infer the need for a
+         * bridge to another neighbor if the number of
+         * neighbors is greater 1. The choice of this other
+         * bridge is unambiguous, if the number of
+         * neighbors is exactly 2.
+         */
+        int required = island.getRequiredBridges();
+        if (required > 2)
+            return null;
+
+        /*
+         * Count existing bridges and skip this island,
+         * if it already has enough. The island may have
+         * to many bridges already, if the user made a
+         * mistake.
+         */
+        if (required <= board.getBridgeCount(island))
+            return null;
+
+        List<Island> neighbors = board.neighbors(island);
+        if (neighbors.size() != 2)
+            return null;
+
+        Island otherIsolated = null;
+        for (Island neighbor : neighbors) {
+            if (neighbor.getRequiredBridges() == required) {
+                otherIsolated = neighbor;
+                break;
+            }
+        }
+
+        // Skip this island, if no
+        // isolated neighbor was found.
+        if (otherIsolated == null)
+            return null;
+
+        // The 'good' neighbor is the one with another index.
+        int goodIndex = (neighbors.indexOf(otherIsolated) + 1) % 2;
+        Island goodNeighbor = neighbors.get(goodIndex);
+
+        // Build a new bridge, if this bridge (or a double one)
+        // doesn't already exist.
+        Bridge bridge = new Bridge(island, goodNeighbor, false);
+
+        if (board.searchBridge(island, goodNeighbor) == null)
+            return bridge;
+        return null;
+    }
+}
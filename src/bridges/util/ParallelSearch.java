@@ -0,0 +1,75 @@
+package bridges.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A task, which searches a solution of a constraint model in parallel.
+ * <p>
+ * The top levels of the search tree are split into subtasks: Every subtask
+ * gets its own copy of the model with the branching edge fixed to one of its
+ * values. Below these levels, the subtasks search sequentially. Idle threads
+ * of the ForkJoinPool steal waiting subtasks, and all subtasks stop as soon
+ * as one of them has found a solution.
+ *
+ * @author Maik Messerschmidt
+ */
+class ParallelSearch extends RecursiveTask<ConstraintModel> {
+    private static final long serialVersionUID = 1L;
+
+    final private ConstraintModel model;
+    final private int splitDepth;
+    final private SolverBudget budget;
+    final private AtomicReference<ConstraintModel> solution;
+
+    /**
+     * Create a new task searching the given (propagated) model.
+     *
+     * @param model       - the model to search.
+     * @param parallelism - the number of threads, which will run the tasks.
+     * @param budget      - the budget of the whole search.
+     */
+    ParallelSearch(ConstraintModel model, int parallelism, SolverBudget budget) {
+        // Create some more tasks than threads, so work can be balanced.
+        // The tasks share a budget, which is cancelled, once a solution was found.
+        this(model, 32 - Integer.numberOfLeadingZeros(4 * parallelism),
+                new SolverBudget(budget), new AtomicReference<ConstraintModel>());
+    }
+
+    /**
+     * @param model      - the model to search.
+     * @param splitDepth - the number of levels, which are still split into subtasks.
+     * @param budget     - the budget shared by all tasks.
+     * @param solution   - the solution found by any task.
+     */
+    private ParallelSearch(ConstraintModel model, int splitDepth,
+                           SolverBudget budget, AtomicReference<ConstraintModel> solution) {
+        this.model = model;
+        this.splitDepth = splitDepth;
+        this.budget = budget;
+        this.solution = solution;
+    }
+
+    /**
+     * @return The solved model or null, if there is no solution.
+     */
+    @Override
+    protected ConstraintModel compute() {
+        if (splitDepth == 0 || model.selectEdge() == -1) {
+            if (model.search(budget) && solution.compareAndSet(null, model))
+                budget.cancel();
+        } else {
+            int edge = model.selectEdge();
+            List<ParallelSearch> tasks = new ArrayList<ParallelSearch>();
+            for (int value : model.values(edge)) {
+                ConstraintModel fork = model.copy();
+                if (fork.assign(edge, value))
+                    tasks.add(new ParallelSearch(fork, splitDepth - 1, budget, solution));
+            }
+            invokeAll(tasks);
+        }
+        return solution.get();
+    }
+}
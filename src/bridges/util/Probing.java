@@ -0,0 +1,324 @@
+package bridges.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+import bridges.game.CompactBoard;
+import bridges.game.Direction;
+
+/**
+ * A solve algorithm, which tries the possible numbers of bridges of
+ * every open edge (see ConstraintModel) and drops those, which lead
+ * to a contradiction.
+ * <br><br>
+ * A probe fixes the number of bridges of an edge on a copy of the model
+ * and propagates the constraints. If that fails, the number is ruled out,
+ * so the edge takes one of the others (e.g. excluding a bridge, which
+ * can't be placed, or placing a bridge, which can't be excluded). With
+ * a depth of more than 1, a probe also tries all numbers of bridges of
+ * the next edge chosen by the search strategy and fails, if all of
+ * them fail (up to the given depth).
+ * <br><br>
+ * The probes of all edges are independent of each other, so they run
+ * in parallel on a shared ForkJoinPool. A round of probes stops, once
+ * an edge has been narrowed. Then the bounds found by the probes are
+ * applied to the model and the next round starts, until a bridge is
+ * forced or no probe fails any more. Unlike a search, probing only
+ * finds bridges, which are part of every solution, but it resolves most
+ * boards, which the cheap rules leave unsolved, at a fraction of the
+ * cost of a search.
+ * <br><br>
+ * The bridges forced by the last call are kept, so stepping through a board
+ * only probes again, once they are all on the board.
+ *
+ * @author Maik Messerschmidt
+ */
+public class Probing extends BoardRule {
+    /*
+     * The depth used, if none is given.
+     */
+    final public static int DEFAULT_DEPTH = 2;
+
+    final private int depth;
+    final private int parallelism;
+
+    /*
+     * The forced bridges found by the last call (or null).
+     */
+    private volatile ForcedBridges memo = null;
+
+    /*
+     * The pool running the probes of all Probings (created on first use).
+     * Its workers are daemon threads, which end, once they have been idle
+     * for a while, so it is never shut down.
+     */
+    private static ForkJoinPool pool = null;
+
+    /**
+     * Create a new Probing with the default depth, which uses all available processors.
+     */
+    public Probing() {
+        this(DEFAULT_DEPTH, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a new Probing.
+     *
+     * @param depth       - the number of edges fixed by a single probe.
+     * @param parallelism - the number of threads to run the probes (at most one per processor).
+     * @throws IllegalArgumentException if depth or parallelism is less than 1.
+     */
+    public Probing(int depth, int parallelism) throws IllegalArgumentException {
+        if (depth < 1)
+            throw new IllegalArgumentException("Depth must be >= 1.");
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be >= 1.");
+
+        this.depth = depth;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return The number of edges fixed by a single probe.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return The number of threads to run the probes.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Return a possible bridge for the given board or null.
+     * <br><br>
+     * Probes, which exhaust the budget, don't rule out anything.
+     *
+     * @param board  - the board.
+     * @param budget - the budget of the probes.
+     * @return A possible bridge.
+     */
+    protected Bridge findBridge(Board board, SolverBudget budget) {
+        ForcedBridges forced = memo;
+        if (forced != null) {
+            if (forced.holds(board)) {
+                Bridge bridge = ConstraintSolver.firstNewBridge(board, forced.bridges);
+                if (bridge != null)
+                    return bridge;
+            }
+            memo = null;
+        }
+
+        CompactBoard base = new CompactBoard(board);
+        ConstraintModel model = new ConstraintModel(base);
+        if (!model.propagate())
+            return null;
+
+        while (true) {
+            // The bridges forced so far (this includes those forced by propagation alone).
+            CompactBoard bridges = new CompactBoard(board);
+            ConstraintSolver.apply(bridges, model);
+            Bridge bridge = ConstraintSolver.firstNewBridge(board, bridges);
+            if (bridge != null) {
+                memo = new ForcedBridges(base, bridges);
+                return bridge;
+            }
+
+            List<Integer> edges = openEdges(base, model);
+            int[][] bounds = probe(model, edges, budget);
+
+            boolean changed = false;
+            for (int i = 0; i < edges.size(); i++) {
+                int edge = edges.get(i);
+                if (bounds[i] == null || bounds[i][0] == model.getMin(edge) && bounds[i][1] == model.getMax(edge))
+                    continue;
+
+                // All numbers of bridges of the edge failed, so the board can't be solved.
+                if (bounds[i][0] > bounds[i][1] || !model.narrow(edge, bounds[i][0], bounds[i][1]))
+                    return null;
+                changed = true;
+            }
+            if (!changed)
+                return null;
+        }
+    }
+
+    /**
+     * Return all edges of the model, whose number of bridges isn't fixed yet.
+     *
+     * @param board - the board of the model.
+     * @param model - the propagated model.
+     * @return The open edges.
+     */
+    private static List<Integer> openEdges(CompactBoard board, ConstraintModel model) {
+        List<Integer> result = new ArrayList<Integer>();
+        for (int id = 0; id < board.getIslandCount(); id++) {
+            for (Direction dir : ConstraintModel.DIRECTIONS) {
+                int edge = ConstraintModel.edge(id, dir);
+                if (model.isPresent(edge) && model.getMin(edge) < model.getMax(edge))
+                    result.add(edge);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Probe all numbers of bridges of the given edges, until the first
+     * edge has been narrowed.
+     * <br><br>
+     * If more than one thread is used, the edges are split into one task per
+     * thread, which run on the shared pool and probe their edges on their
+     * own copy of the model. Every task finishes the edge it is probing,
+     * so several edges may be narrowed at once.
+     *
+     * @param model  - the propagated model (which is left as it was).
+     * @param edges  - the edges to probe.
+     * @param budget - the budget of the probes.
+     * @return The lowest and highest number of bridges, which didn't fail, for every
+     * edge (the lower bound is greater than the upper one, if all failed) or null
+     * for edges, which haven't been probed.
+     */
+    private int[][] probe(ConstraintModel model, final List<Integer> edges, final SolverBudget budget) {
+        final int[][] result = new int[edges.size()][];
+        final AtomicBoolean narrowed = new AtomicBoolean();
+        if (parallelism == 1 || edges.size() < 2) {
+            probeEdges(model, edges, 0, 1, budget, narrowed, result);
+            return result;
+        }
+
+        // No more tasks than threads, so the probes don't take more threads than given.
+        final int taskCount = Math.min(edges.size(), parallelism);
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int task = 0; task < taskCount; task++) {
+            final int first = task;
+            final ConstraintModel copy = model.copy();
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    probeEdges(copy, edges, first, taskCount, budget, narrowed, result);
+                    return null;
+                }
+            });
+        }
+
+        try {
+            for (Future<Void> future : getPool().invokeAll(tasks))
+                future.get();
+        } catch (InterruptedException e) {
+            // Give up like a search, which ran out of time.
+            Thread.currentThread().interrupt();
+            budget.cancel();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Probe failed.", e.getCause());
+        }
+        return result;
+    }
+
+    /**
+     * @return The pool running the probes (with a thread per available processor).
+     */
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null)
+            pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        return pool;
+    }
+
+    /**
+     * Probe every step-th edge starting with the given one, until any edge has been narrowed.
+     *
+     * @param model    - the propagated model (which is left as it was).
+     * @param edges    - the edges to probe.
+     * @param first    - the index of the first edge to probe.
+     * @param step     - the distance between the indices of the edges to probe.
+     * @param budget   - the budget of the probes.
+     * @param narrowed - set, once any edge has been narrowed.
+     * @param result   - the bounds of the probed edges (see probe()).
+     */
+    private void probeEdges(ConstraintModel model, List<Integer> edges, int first, int step,
+                            SolverBudget budget, AtomicBoolean narrowed, int[][] result) {
+        for (int i = first; i < edges.size() && !narrowed.get(); i += step) {
+            int edge = edges.get(i);
+            result[i] = probeEdge(model, edge, budget);
+            if (result[i][0] != model.getMin(edge) || result[i][1] != model.getMax(edge))
+                narrowed.set(true);
+        }
+    }
+
+    /**
+     * Probe all numbers of bridges of the given edge.
+     *
+     * @param model  - the propagated model (which is left as it was).
+     * @param edge   - the edge to probe.
+     * @param budget - the budget of the probes.
+     * @return The lowest and highest number of bridges, which didn't fail.
+     */
+    private int[] probeEdge(ConstraintModel model, int edge, SolverBudget budget) {
+        int lower = Integer.MAX_VALUE;
+        int upper = Integer.MIN_VALUE;
+        for (int value = model.getMin(edge); value <= model.getMax(edge); value++) {
+            if (!model.fails(edge, value, depth, budget)) {
+                lower = Math.min(lower, value);
+                upper = Math.max(upper, value);
+            }
+        }
+        return new int[]{lower, upper};
+    }
+}
+
+/**
+ * The bridges forced on a board (the lower bounds of a probed model).
+ * <br><br>
+ * Adding bridges doesn't add solutions, so the bridges are still forced on
+ * any board with the same islands, which has at least the bridges of the board.
+ *
+ * @author Maik Messerschmidt
+ */
+class ForcedBridges {
+    final CompactBoard base;
+    final CompactBoard bridges;
+
+    /**
+     * @param base    - the board, which was probed.
+     * @param bridges - the board with all forced bridges.
+     */
+    ForcedBridges(CompactBoard base, CompactBoard bridges) {
+        this.base = base;
+        this.bridges = bridges;
+    }
+
+    /**
+     * Check, if the forced bridges still hold for the given board, that is: if
+     * it has the same islands, at least the bridges of the probed board and no
+     * bridges, which aren't forced.
+     *
+     * @param board - the board.
+     * @return true, if the forced bridges hold, false otherwise.
+     */
+    boolean holds(Board board) {
+        if (board.getWidth() != base.getWidth() || board.getHeight() != base.getHeight()
+                || board.getIslandCount() != base.getIslandCount())
+            return false;
+
+        for (int id = 0; id < base.getIslandCount(); id++) {
+            if (board.getIsland(id).getX() != base.getX(id) || board.getIsland(id).getY() != base.getY(id)
+                    || board.getIsland(id).getRequiredBridges() != base.getRequiredBridges(id))
+                return false;
+
+            for (Direction dir : ConstraintModel.DIRECTIONS) {
+                int count = board.getBridgeMultiplicity(id, dir);
+                if (count < base.getBridges(id, dir) || count > bridges.getBridges(id, dir))
+                    return false;
+            }
+        }
+        return true;
+    }
+}
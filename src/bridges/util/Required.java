@@ -0,0 +1,136 @@
+package bridges.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+import bridges.game.Island;
+
+/**
+ * A solve algorithm, which simply makes use
+ * of the required count of an island.
+ * <br><br>
+ * Only the bridges of an island and of its neighbors are taken into
+ * account, so the rule is checked for changed islands only (see IslandRule).
+ *
+ * @author Maik Messerschmidt
+ */
+public class Required extends IslandRule {
+    /**
+     * Return a possible bridge for the given island or null.
+     *
+     * @param board  - the board.
+     * @param island - the island to check.
+     * @return A possible bridge.
+     */
+    public Bridge nextBridge(Board board, Island island) {
+        int required = island.getRequiredBridges();
+
+        /*
+         * Count existing bridges and skip this island,
+         * if it already has enough. The island may have
+         * to many bridges already, if the user made a
+         * mistake.
+         */
+        if (required <= board.getBridgeCount(island))
+            return null;
+
+        List<Bridge> existing = board.bridges(island);
+
+        /*
+         * This follows the strategies, described in
+         * section 2.1. and 2.2.2 of the task:
+         *
+         * 1. Collect all valid neighbors, where we can
+         *    actually build bridges to (that is: these
+         *    bridges would not cross any existing
+         *    bridges).
+         * 2. Count the number of available bridges for
+         *    each valid neighbor and add it to the
+         *    single_neighbors or double_neighbors list
+         *    depending on the numbers of bridges we can
+         *    build to them.
+         * 2. The available number of bridges that can be
+         *    build is the sum over 2 for each
+         *    double_neighbor and 1 for each single_neighbor.
+         * 3. If it is equal to the number of required bridges
+         *    we can build a bridge to any of these.
+         *    Otherwise we know, that if the
+         *    number of available bridges - 1 is
+         *    the number of required bridges we can
+         *    at least add a single bridge BUT ONLY,
+         *    if all neighbors, which we still can
+         *    build bridges to, are double neighbors.
+         *
+         * This algorithm returns the same results as the
+         * 2*n and 2*n-1 method, but also includes cases,
+         * like this one, where these methods fail:
+         *
+         *        2
+         *
+         *        4  1
+         *
+         *        1
+         *
+         * 4 < 2 * 3 and 4 < 2 * 3 - 1.
+         */
+        List<Island> singleNeighbors = new ArrayList<Island>();
+        List<Island> doubleNeighbors = new ArrayList<Island>();
+
+        for (Island neighbor : board.validNeighbors(island)) {
+            // Build a list of bridges of this neighbor, which
+            // excludes possible bridges to the current island
+            List<Bridge> neighborBridges = board.bridges(neighbor);
+            neighborBridges.remove(new Bridge(island, neighbor, false));
+            neighborBridges.remove(new Bridge(island, neighbor, true));
+
+            int count = Bridge.count(neighborBridges);
+            int remainingForNeighbor = neighbor.getRequiredBridges() - count;
+
+            if (remainingForNeighbor >= 2)
+                doubleNeighbors.add(neighbor);
+            else if (remainingForNeighbor == 1)
+                singleNeighbors.add(neighbor);
+        }
+
+        int available = 2 * doubleNeighbors.size() + singleNeighbors.size();
+
+        // All neighbors need the maximum number of bridges.
+        if (required == available) {
+            for (Island neighbor : doubleNeighbors) {
+                // Only add double bridge, if no double bridge exists.
+                Bridge bridge = new Bridge(island, neighbor, true);
+                if (!existing.contains(bridge))
+                    return bridge;
+            }
+            for (Island neighbor : singleNeighbors) {
+                // Only add a bridge, if neither double nor single exists.
+                Bridge doubleBridge = new Bridge(island, neighbor, true);
+                Bridge bridge = new Bridge(island, neighbor, false);
+                if (!existing.contains(bridge) && !existing.contains(doubleBridge))
+                    return bridge;
+            }
+        } else if (required == available - 1) {
+            List<Island> existingNeighbors = new ArrayList<Island>();
+            for (Bridge bridge : existing) {
+                // This add the current island to existingNeighbors,
+                // but this doesn't matter.
+                existingNeighbors.add(bridge.getFirstIsland());
+                existingNeighbors.add(bridge.getSecondIsland());
+            }
+
+            singleNeighbors.removeAll(existingNeighbors);
+            if (singleNeighbors.isEmpty()) {
+                for (Island neighbor : doubleNeighbors) {
+                    // Only add a bridge, if neither double nor single exists.
+                    Bridge doubleBridge = new Bridge(island, neighbor, true);
+                    Bridge bridge = new Bridge(island, neighbor, false);
+                    if (!existing.contains(bridge) && !existing.contains(doubleBridge))
+                        return bridge;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,131 @@
+package bridges.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the work of a solver search.
+ * <p>
+ * A budget is exhausted, once<br>
+ * - its time is up,<br>
+ * - the search has visited its maximal number of nodes or<br>
+ * - it has been cancelled by calling cancel() (e.g. from another thread).
+ * <p>
+ * Searches check their budget on every node and give up, once it
+ * is exhausted. Methods of BoardSolver, which take a budget, document
+ * how they report this (e.g. BoardState.UNKNOWN).
+ * <p>
+ * A budget can be used by several threads at once, but it is meant to
+ * be used for a single call only, since the time starts running, when
+ * the budget is created.
+ *
+ * @author Maik Messerschmidt
+ */
+public class SolverBudget {
+    /*
+     * The clock is only read every CLOCK_INTERVAL nodes (starting with the first one).
+     */
+    final private static int CLOCK_INTERVAL = 64;
+
+    final private long deadline;
+    final private long nodeLimit;
+    final private AtomicLong nodes;
+    final private SolverBudget parent;
+    private volatile boolean cancelled = false;
+    private volatile boolean timedOut = false;
+
+    /**
+     * Create a new budget.
+     *
+     * @param timeoutMillis - the time available from now on in milliseconds (Long.MAX_VALUE for no limit).
+     * @param nodeLimit     - the maximal number of nodes to visit (Long.MAX_VALUE for no limit).
+     * @throws IllegalArgumentException if the timeout or the node limit is negative.
+     */
+    public SolverBudget(long timeoutMillis, long nodeLimit) throws IllegalArgumentException {
+        if (timeoutMillis < 0 || nodeLimit < 0)
+            throw new IllegalArgumentException("Timeout and node limit must be >= 0.");
+
+        // Timeouts of more than about a century are treated as no limit.
+        this.deadline = (timeoutMillis > Long.MAX_VALUE / 2000000)
+                ? Long.MAX_VALUE : System.nanoTime() + timeoutMillis * 1000000;
+        this.nodeLimit = nodeLimit;
+        this.nodes = new AtomicLong();
+        this.parent = null;
+    }
+
+    /**
+     * Create a new budget, which is exhausted, if it is cancelled or
+     * the given budget is exhausted. Nodes are counted by the given budget.
+     *
+     * @param parent - the budget to take the limits from.
+     */
+    SolverBudget(SolverBudget parent) {
+        this.deadline = Long.MAX_VALUE;
+        this.nodeLimit = Long.MAX_VALUE;
+        this.nodes = null;
+        this.parent = parent;
+    }
+
+    /**
+     * @return A new budget without any limits (which can still be cancelled).
+     */
+    public static SolverBudget unlimited() {
+        return new SolverBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Cancel the search using this budget.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true, if cancel() has been called, false otherwise.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return The number of nodes visited so far.
+     */
+    public long getNodes() {
+        return (parent != null) ? parent.getNodes() : nodes.get();
+    }
+
+    /**
+     * Check, if this budget is exhausted, that is: if it has been
+     * cancelled or a search has been stopped by one of its limits.
+     * <br><br>
+     * Note: A search, which finished in time, doesn't exhaust the budget,
+     * even if its time is up, when this is called.
+     *
+     * @return true, if the search should give up (or gave up), false otherwise.
+     */
+    public boolean isExhausted() {
+        if (cancelled || timedOut)
+            return true;
+        if (parent != null)
+            return parent.isExhausted();
+        return nodes.get() > nodeLimit;
+    }
+
+    /**
+     * Count a visited node and check, if the search may go on.
+     *
+     * @return true, if the search may visit the node, false, if this budget is exhausted.
+     */
+    boolean tick() {
+        if (cancelled || timedOut)
+            return false;
+        if (parent != null)
+            return parent.tick();
+
+        long count = nodes.incrementAndGet();
+        if (count > nodeLimit)
+            return false;
+        if (count % CLOCK_INTERVAL == 1 && deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0)
+            timedOut = true;
+        return !timedOut;
+    }
+}
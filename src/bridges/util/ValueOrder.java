@@ -0,0 +1,57 @@
+package bridges.util;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import bridges.game.Board;
+import bridges.game.Island;
+
+/**
+ * The order, in which a solver search tries the possibilities
+ * of the island it branches on (see BranchingStrategy).
+ *
+ * @author Maik Messerschmidt
+ */
+public enum ValueOrder {
+    /**
+     * Try the possibilities in the order of the search: Neighbors are tried
+     * in the order of their directions, bridges are tried before no bridges.
+     */
+    NATURAL,
+
+    /**
+     * Try the most bridges first: Neighbors, which still need the most
+     * bridges, are tried first, double bridges are tried before single bridges.
+     */
+    MOST_FIRST,
+
+    /**
+     * Try the fewest bridges first: Neighbors, which still need the fewest
+     * bridges, are tried first, no bridges are tried before single bridges.
+     */
+    LEAST_FIRST;
+
+    /**
+     * Sort the given neighbors by this order (which keeps the order of neighbors,
+     * which still need the same number of bridges).
+     *
+     * @param board     - the board.
+     * @param neighbors - the neighbors to sort.
+     */
+    void sort(Board board, List<Island> neighbors) {
+        if (this == NATURAL)
+            return;
+
+        Comparator<Island> comparator = Comparator.comparingInt(
+                neighbor -> neighbor.getRequiredBridges() - board.getBridgeCount(neighbor));
+        Collections.sort(neighbors, (this == MOST_FIRST) ? comparator.reversed() : comparator);
+    }
+
+    /**
+     * @return true, if fewer bridges are tried before more bridges, false otherwise.
+     */
+    boolean isAscending() {
+        return this == LEAST_FIRST;
+    }
+}
@@ -1,6 +1,8 @@
 package bridges.game.tests;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -57,4 +59,408 @@ public class BoardTests {
         Assert.assertEquals(islandEast, board.neighbor(island, Direction.EAST));
         Assert.assertEquals(null, board.neighbor(islandNorth, Direction.NORTH));
     }
+
+    @Test
+    // Adding an island between two neighbors updates the neighbors of both.
+    public void testNeighbourInserted() {
+        Board board = new Board(10, 10);
+        Island west = new Island(1, 4, 1);
+        Island east = new Island(8, 4, 1);
+        Island middle = new Island(5, 4, 1);
+        board.addIsland(west);
+        board.addIsland(east);
+        Assert.assertEquals(east, board.neighbor(west, Direction.EAST));
+
+        board.addIsland(middle);
+        Assert.assertEquals(middle, board.neighbor(west, Direction.EAST));
+        Assert.assertEquals(middle, board.neighbor(east, Direction.WEST));
+        Assert.assertEquals(west, board.neighbor(middle, Direction.WEST));
+        Assert.assertEquals(east, board.neighbor(middle, Direction.EAST));
+        Assert.assertEquals(null, board.neighbor(middle, Direction.NORTH));
+    }
+
+    @Test
+    public void testGetIslandAt() {
+        Board board = new Board(5, 5);
+        Island island = new Island(2, 3, 4);
+        board.addIsland(island);
+        Assert.assertEquals(island, board.getIslandAt(2, 3));
+        Assert.assertEquals(null, board.getIslandAt(3, 2));
+        Assert.assertEquals(null, board.getIslandAt(-1, 3));
+        Assert.assertEquals(null, board.getIslandAt(2, 5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    // Islands must not be placed directly next to each other.
+    public void testCollidingIsland() {
+        Board board = new Board(5, 5);
+        board.addIsland(new Island(2, 3, 4));
+        board.addIsland(new Island(2, 2, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    // Asking for the neighbor of an island, which isn't on the board fails.
+    public void testNeighbourUnknownIsland() {
+        Board board = new Board(5, 5);
+        board.addIsland(new Island(2, 3, 4));
+        board.neighbor(new Island(2, 3, 1), Direction.NORTH);
+    }
+
+    @Test
+    // Very large and sparse boards work the same way as small boards.
+    public void testSparseBoard() {
+        Board board = new Board(10000, 10000);
+        Island center = new Island(5000, 5000, 4);
+        Island north = new Island(5000, 17, 1);
+        Island east = new Island(9999, 5000, 1);
+        Island eastCloser = new Island(6000, 5000, 1);
+        Island west = new Island(0, 5000, 1);
+        board.addIsland(center);
+        board.addIsland(north);
+        board.addIsland(east);
+        board.addIsland(west);
+        board.addIsland(eastCloser);
+
+        Assert.assertEquals(center, board.getIslandAt(5000, 5000));
+        Assert.assertEquals(null, board.getIslandAt(5000, 5001));
+        Assert.assertEquals(north, board.neighbor(center, Direction.NORTH));
+        Assert.assertEquals(eastCloser, board.neighbor(center, Direction.EAST));
+        Assert.assertEquals(center, board.neighbor(eastCloser, Direction.WEST));
+        Assert.assertEquals(eastCloser, board.neighbor(east, Direction.WEST));
+        Assert.assertEquals(west, board.neighbor(center, Direction.WEST));
+        Assert.assertEquals(null, board.neighbor(center, Direction.SOUTH));
+    }
+
+    @Test
+    // Bridge counts and incomplete / overfull islands follow added and removed bridges.
+    public void testBridgeCounts() {
+        Board board = new Board(5, 5);
+        Island a = new Island(0, 0, 1);
+        Island b = new Island(4, 0, 3);
+        Island c = new Island(4, 4, 2);
+        board.addIsland(a);
+        board.addIsland(b);
+        board.addIsland(c);
+        Assert.assertEquals(3, board.getIncomplete().size());
+
+        board.addBridge(new Bridge(a, b, true));
+        board.addBridge(new Bridge(b, c, false));
+        Assert.assertEquals(2, board.getBridgeCount(a));
+        Assert.assertEquals(3, board.getBridgeCount(b));
+        Assert.assertEquals(1, board.getBridgeCount(c));
+        Assert.assertEquals(Arrays.asList(c), board.getIncomplete());
+        Assert.assertEquals(Arrays.asList(a), board.getOverfull());
+        Assert.assertEquals(false, board.isComplete());
+
+        Bridge single = board.removeOneBridge(new Bridge(a, b, true));
+        Assert.assertEquals(new Bridge(a, b, false), single);
+        board.addBridge(new Bridge(b, c, true));
+        Assert.assertEquals(false, board.hasOverfull());
+        Assert.assertEquals(true, board.getIncomplete().isEmpty());
+        Assert.assertEquals(true, board.isComplete());
+
+        board.reset();
+        Assert.assertEquals(0, board.getBridgeCount(b));
+        Assert.assertEquals(3, board.getIncomplete().size());
+        Assert.assertEquals(new ArrayList<Bridge>(), board.bridges());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    // Islands must not be placed under an already present bridge.
+    public void testIslandUnderBridge() {
+        Board board = new Board(5, 5);
+        Island a = new Island(0, 2, 1);
+        Island b = new Island(4, 2, 1);
+        board.addIsland(a);
+        board.addIsland(b);
+        board.addBridge(new Bridge(a, b, false));
+        board.addIsland(new Island(2, 2, 1));
+    }
+
+    @Test
+    // Connected groups follow added and removed bridges.
+    public void testPartition() {
+        Board board = new Board(5, 5);
+        Island a = new Island(0, 0, 2);
+        Island b = new Island(4, 0, 2);
+        Island c = new Island(4, 4, 2);
+        Island d = new Island(0, 4, 2);
+        board.addIsland(a);
+        board.addIsland(b);
+        board.addIsland(c);
+        board.addIsland(d);
+        Assert.assertEquals(4, board.getComponentCount());
+        Assert.assertEquals(4, board.partition().size());
+
+        board.addBridge(new Bridge(a, b, false));
+        board.addBridge(new Bridge(c, d, false));
+        Assert.assertEquals(2, board.getComponentCount());
+        Assert.assertEquals(Arrays.asList(Arrays.asList(a, b), Arrays.asList(c, d)), board.partition());
+
+        board.addBridge(new Bridge(b, c, false));
+        Assert.assertEquals(true, board.isFullyConnected());
+
+        board.removeOneBridge(new Bridge(a, b, false));
+        Assert.assertEquals(2, board.getComponentCount());
+        Assert.assertEquals(Arrays.asList(Arrays.asList(a), Arrays.asList(b, c, d)), board.partition());
+        Assert.assertEquals(false, board.isFullyConnected());
+    }
+
+    @Test
+    // Crossing checks and cut positions follow the bridges on the board.
+    public void testCrosses() {
+        /*
+         *   01234
+         * 0   a
+         * 1 b-+-c
+         * 2   |
+         * 3   d
+         */
+        Board board = new Board(5, 4);
+        Island a = new Island(2, 0, 1);
+        Island b = new Island(0, 1, 1);
+        Island c = new Island(4, 1, 1);
+        Island d = new Island(2, 3, 1);
+        board.addIsland(a);
+        board.addIsland(b);
+        board.addIsland(c);
+        board.addIsland(d);
+
+        Bridge horizontal = new Bridge(b, c, false);
+        Bridge vertical = new Bridge(a, d, false);
+        Assert.assertEquals(false, board.crosses(vertical));
+        Assert.assertEquals(false, board.isCut(2, 1));
+
+        board.addBridge(horizontal);
+        Assert.assertEquals(true, board.crosses(vertical));
+        Assert.assertEquals(false, board.crosses(horizontal));
+        Assert.assertEquals(false, board.canAdd(vertical));
+        Assert.assertEquals(true, board.isCut(1, 1));
+        Assert.assertEquals(true, board.isCut(2, 1));
+        Assert.assertEquals(false, board.isCut(2, 2));
+        Assert.assertEquals(Arrays.asList(), board.validNeighbors(a));
+
+        board.removeOneBridge(horizontal);
+        Assert.assertEquals(false, board.crosses(vertical));
+        Assert.assertEquals(false, board.isCut(2, 1));
+        Assert.assertEquals(Arrays.asList(d), board.validNeighbors(a));
+    }
+
+    @Test
+    // Islands get consecutive ids in the order they are added.
+    public void testIslandIds() {
+        Board board = new Board(5, 5);
+        Island a = new Island(0, 0, 2);
+        Island b = new Island(4, 0, 2);
+        Island c = new Island(0, 3, 1);
+        board.addIsland(a);
+        board.addIsland(b);
+        board.addIsland(c);
+
+        Assert.assertEquals(0, board.getIslandId(a));
+        Assert.assertEquals(1, board.getIslandId(b));
+        Assert.assertEquals(2, board.getIslandIdAt(0, 3));
+        Assert.assertEquals(-1, board.getIslandId(new Island(0, 3, 2)));
+        Assert.assertEquals(-1, board.getIslandIdAt(1, 3));
+        Assert.assertEquals(b, board.getIsland(1));
+
+        Assert.assertEquals(1, board.neighborId(0, Direction.EAST));
+        Assert.assertEquals(2, board.neighborId(0, Direction.SOUTH));
+        Assert.assertEquals(-1, board.neighborId(0, Direction.WEST));
+
+        board.addBridge(new Bridge(b, a, true));
+        Assert.assertEquals(2, board.getBridgeMultiplicity(0, Direction.EAST));
+        Assert.assertEquals(2, board.getBridgeMultiplicity(1, Direction.WEST));
+        Assert.assertEquals(0, board.getBridgeMultiplicity(0, Direction.SOUTH));
+        Assert.assertEquals(0, board.getBridgeMultiplicity(0, Direction.NORTH));
+        Assert.assertEquals(2, board.getBridgeCount(1));
+    }
+
+    @Test
+    // Copies and snapshots don't change, when the original board changes (and vice versa).
+    public void testCopyAndSnapshot() {
+        Board board = new Board(5, 5);
+        Island a = new Island(0, 0, 2);
+        Island b = new Island(4, 0, 2);
+        Island c = new Island(4, 4, 2);
+        board.addIsland(a);
+        board.addIsland(b);
+        board.addBridge(new Bridge(a, b, false));
+
+        Board copy = board.copy();
+        Board snapshot = board.snapshot();
+        Assert.assertEquals(false, copy.isSnapshot());
+        Assert.assertEquals(true, snapshot.isSnapshot());
+
+        board.addBridge(new Bridge(a, b, true));
+        board.addIsland(c);
+        copy.removeOneBridge(new Bridge(a, b, false));
+
+        Assert.assertEquals(Arrays.asList(new Bridge(a, b, true)), board.bridges());
+        Assert.assertEquals(3, board.getIslandCount());
+        Assert.assertEquals(new ArrayList<Bridge>(), copy.bridges());
+        Assert.assertEquals(2, copy.getIslandCount());
+        Assert.assertEquals(Arrays.asList(new Bridge(a, b, false)), snapshot.bridges());
+        Assert.assertEquals(2, snapshot.getIslandCount());
+        Assert.assertEquals(1, snapshot.getBridgeCount(a));
+        Assert.assertEquals(true, snapshot.isFullyConnected());
+        Assert.assertEquals(false, copy.isFullyConnected());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    // Snapshots can't be changed.
+    public void testChangeSnapshot() {
+        Board board = new Board(5, 5);
+        Island a = new Island(0, 0, 2);
+        Island b = new Island(4, 0, 2);
+        board.addIsland(a);
+        board.addIsland(b);
+        board.snapshot().addBridge(new Bridge(a, b, false));
+    }
+
+    @Test
+    // Rollback, undo and redo restore the bridges, counts and connectivity.
+    public void testJournal() {
+        Board board = new Board(5, 5);
+        Island a = new Island(0, 0, 3);
+        Island b = new Island(4, 0, 3);
+        Island c = new Island(4, 4, 2);
+        board.addIsland(a);
+        board.addIsland(b);
+        board.addIsland(c);
+        Assert.assertEquals(false, board.canUndo());
+
+        board.addBridge(new Bridge(a, b, false));
+        int checkpoint = board.checkpoint();
+        board.addBridge(new Bridge(a, b, true));
+        board.addBridge(new Bridge(b, c, false));
+        Assert.assertEquals(true, board.isFullyConnected());
+
+        board.rollback(checkpoint);
+        Assert.assertEquals(Arrays.asList(new Bridge(a, b, false)), board.bridges());
+        Assert.assertEquals(1, board.getBridgeCount(b));
+        Assert.assertEquals(false, board.isFullyConnected());
+        Assert.assertEquals(true, board.canRedo());
+
+        Assert.assertEquals(true, board.redo());
+        Assert.assertEquals(Arrays.asList(new Bridge(a, b, true)), board.bridges());
+        Assert.assertEquals(true, board.undo());
+        Assert.assertEquals(true, board.undo());
+        Assert.assertEquals(false, board.undo());
+        Assert.assertEquals(new ArrayList<Bridge>(), board.bridges());
+
+        // A new change drops all changes, which could be redone.
+        board.addBridge(new Bridge(b, c, false));
+        Assert.assertEquals(false, board.canRedo());
+        Assert.assertEquals(1, board.getBridgeCount(c));
+
+        // So does clearRedo(), but the changes before can still be undone.
+        checkpoint = board.checkpoint();
+        board.addBridge(new Bridge(a, b, false));
+        board.rollback(checkpoint);
+        board.clearRedo();
+        Assert.assertEquals(false, board.canRedo());
+        Assert.assertEquals(true, board.undo());
+        Assert.assertEquals(new ArrayList<Bridge>(), board.bridges());
+    }
+
+    @Test
+    public void testChangeLog() {
+        Board board = new Board(7, 7);
+        Island a = new Island(0, 2, 2);
+        Island b = new Island(4, 2, 2);
+        Island c = new Island(2, 0, 1);
+        Island d = new Island(2, 4, 1);
+        Island e = new Island(0, 4, 2);
+        Island f = new Island(6, 6, 1);
+        Island g = new Island(6, 0, 1);
+        for (Island island : Arrays.asList(a, b, c, d, e, f, g))
+            board.addIsland(island);
+
+        long mark = board.getChangeMark();
+        BitSet affected = new BitSet();
+        Assert.assertEquals(true, board.collectChangedIslands(mark, affected));
+        Assert.assertEquals(true, affected.isEmpty());
+
+        // The islands of the bridge, their neighbors and the islands
+        // of the crossed line between c and d are affected.
+        board.addBridge(new Bridge(a, b, false));
+        Assert.assertEquals(true, board.collectChangedIslands(mark, affected));
+        BitSet expected = new BitSet();
+        expected.set(0, 5);
+        Assert.assertEquals(expected, affected);
+
+        // Undoing a change is a change as well.
+        mark = board.getChangeMark();
+        board.undo();
+        affected.clear();
+        Assert.assertEquals(true, board.collectChangedIslands(mark, affected));
+        Assert.assertEquals(expected, affected);
+
+        // Old marks are invalid after adding an island.
+        board.addIsland(new Island(4, 6, 1));
+        Assert.assertEquals(false, board.collectChangedIslands(mark, affected));
+    }
+
+    @Test
+    // All possible bridges crossing a bridge are found, whether or not
+    // they are on the board.
+    public void testCrossingBridges() {
+        Board board = new Board(7, 7);
+        Island a = new Island(0, 2, 2);
+        Island b = new Island(6, 2, 2);
+        Island c = new Island(2, 0, 1);
+        Island d = new Island(2, 4, 1);
+        Island e = new Island(4, 0, 2);
+        Island f = new Island(4, 6, 1);
+        Island g = new Island(0, 6, 1);
+        for (Island island : Arrays.asList(a, b, c, d, e, f, g))
+            board.addIsland(island);
+
+        Assert.assertEquals(Arrays.asList(new Bridge(c, d, false), new Bridge(e, f, false)),
+                board.crossingBridges(a, b));
+        board.addBridge(new Bridge(e, f, true));
+        Assert.assertEquals(Arrays.asList(new Bridge(c, d, false), new Bridge(e, f, false)),
+                board.crossingBridges(b, a));
+        Assert.assertEquals(Arrays.asList(new Bridge(a, b, false)), board.crossingBridges(c, d));
+        Assert.assertEquals(new ArrayList<Bridge>(), board.crossingBridges(a, g));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    // Only neighbors can have crossing bridges.
+    public void testCrossingBridgesNoNeighbors() {
+        Board board = new Board(7, 7);
+        Island a = new Island(0, 2, 2);
+        Island b = new Island(2, 0, 1);
+        board.addIsland(a);
+        board.addIsland(b);
+        board.crossingBridges(a, b);
+    }
+
+    @Test
+    // Boards with the same islands and bridges are equal and have the same hash.
+    public void testStateHash() {
+        Island a = new Island(0, 0, 3);
+        Island b = new Island(4, 0, 3);
+        Island c = new Island(4, 4, 2);
+        Board board = new Board(5, 5, Arrays.asList(a, b, c),
+                Arrays.asList(new Bridge(a, b, true), new Bridge(b, c, false)));
+        Board other = new Board(5, 5, Arrays.asList(c, b, a),
+                Arrays.asList(new Bridge(c, b, false), new Bridge(b, a, true)));
+        Assert.assertEquals(board, other);
+        Assert.assertEquals(board.getStateHash(), other.getStateHash());
+        Assert.assertEquals(board.hashCode(), other.hashCode());
+
+        long hash = board.getStateHash();
+        board.removeOneBridge(new Bridge(a, b, true));
+        Assert.assertNotEquals(hash, board.getStateHash());
+        Assert.assertNotEquals(board, other);
+        board.undo();
+        Assert.assertEquals(hash, board.getStateHash());
+        Assert.assertEquals(board, other);
+
+        other.reset();
+        Assert.assertEquals(new Board(5, 5, Arrays.asList(a, b, c), null), other);
+        Assert.assertNotEquals(new Board(6, 5, Arrays.asList(a, b, c), null), other);
+    }
 }
@@ -184,4 +184,26 @@ public class BridgeTests {
             }
         }
     }
+
+    /**
+     * Bridges with the same islands in a different order
+     * have the same hashCode and compare as equal.
+     */
+    @Test
+    public void testHashCodeOrder() {
+        Island i1 = new Island(0, 2, 3);
+        Island i2 = new Island(0, 5, 1);
+        Island i3 = new Island(4, 2, 1);
+        Bridge b1 = new Bridge(i1, i2, false);
+        Bridge b2 = new Bridge(i2, i1, false);
+
+        assertEquals(b1.hashCode(), b2.hashCode());
+        assertEquals(0, b1.compareTo(b2));
+        assertEquals(i1, b2.getFirstIsland());
+        assertEquals(i2, b2.getSecondIsland());
+
+        assertEquals(-1, b1.compareTo(new Bridge(i2, i1, true)));
+        assertEquals(1, new Bridge(i3, i1, false).compareTo(b1));
+        assertEquals(-1, b1.compareTo(new Bridge(i3, i1, false)));
+    }
 }
@@ -0,0 +1,121 @@
+package bridges.game.tests;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+import bridges.game.CompactBoard;
+import bridges.game.Direction;
+import bridges.game.Island;
+import bridges.util.BoardWriter;
+
+public class CompactBoardTests {
+    /*
+     *   01234
+     * 0 a===b
+     * 1
+     * 2 c-d |
+     * 3     |
+     * 4     e
+     */
+    private Board createBoard() {
+        Board board = new Board(5, 5);
+        Island a = new Island(0, 0, 2);
+        Island b = new Island(4, 0, 3);
+        Island c = new Island(0, 2, 1);
+        Island d = new Island(2, 2, 1);
+        Island e = new Island(4, 4, 1);
+        board.addIsland(a);
+        board.addIsland(b);
+        board.addIsland(c);
+        board.addIsland(d);
+        board.addIsland(e);
+        board.addBridge(new Bridge(a, b, true));
+        board.addBridge(new Bridge(c, d, false));
+        board.addBridge(new Bridge(e, b, false));
+        return board;
+    }
+
+    @Test
+    // Converting a board to a CompactBoard and back keeps islands and bridges.
+    public void testConversion() {
+        Board board = createBoard();
+        CompactBoard compact = new CompactBoard(board);
+
+        assertEquals(5, compact.getIslandCount());
+        assertEquals(BoardWriter.boardToString(board), BoardWriter.boardToString(compact.toBoard()));
+    }
+
+    @Test
+    // Neighbors and bridges can be queried in all directions.
+    public void testNeighbors() {
+        CompactBoard compact = new CompactBoard(createBoard());
+
+        assertEquals(1, compact.neighbor(0, Direction.EAST));
+        assertEquals(0, compact.neighbor(1, Direction.WEST));
+        assertEquals(2, compact.neighbor(0, Direction.SOUTH));
+        assertEquals(4, compact.neighbor(1, Direction.SOUTH));
+        assertEquals(-1, compact.neighbor(3, Direction.NORTH));
+
+        assertEquals(2, compact.getBridges(1, Direction.WEST));
+        assertEquals(1, compact.getBridges(4, Direction.NORTH));
+        assertEquals(3, compact.getBridgeCount(1));
+
+        compact.trim();
+        assertEquals(3, compact.neighbor(2, Direction.EAST));
+    }
+
+    @Test
+    // Changing the bridges of a copy doesn't change the original.
+    public void testCopy() {
+        CompactBoard compact = new CompactBoard(createBoard());
+        CompactBoard copy = compact.copy();
+
+        copy.setBridges(4, Direction.NORTH, 0);
+        copy.setBridges(0, Direction.SOUTH, 1);
+        assertEquals(1, compact.getBridges(1, Direction.SOUTH));
+        assertEquals(0, copy.getBridges(1, Direction.SOUTH));
+        assertEquals(1, copy.getBridges(2, Direction.NORTH));
+    }
+
+    @Test
+    // Validity checks work like the ones of Board.
+    public void testValidity() {
+        Board board = createBoard();
+        CompactBoard compact = new CompactBoard(board);
+        assertEquals(false, compact.isComplete());
+        assertEquals(false, compact.isFullyConnected());
+        assertEquals(false, compact.hasOverfull());
+        assertEquals(false, compact.hasCrossings());
+
+        // Connect c-d to a, which makes a overfull.
+        compact.setBridges(2, Direction.NORTH, 1);
+        assertEquals(true, compact.isFullyConnected());
+        assertEquals(true, compact.hasOverfull());
+        assertEquals(false, compact.isComplete());
+    }
+
+    @Test
+    // Crossing bridges are detected.
+    public void testCrossings() {
+        /*
+         *   01234
+         * 0   a
+         * 1 b-+-c
+         * 2   d
+         */
+        Board board = new Board(5, 3);
+        board.addIsland(new Island(2, 0, 1));
+        board.addIsland(new Island(0, 1, 1));
+        board.addIsland(new Island(4, 1, 1));
+        board.addIsland(new Island(2, 2, 1));
+        CompactBoard compact = new CompactBoard(board);
+
+        compact.setBridges(1, Direction.EAST, 1);
+        assertEquals(false, compact.hasCrossings());
+        compact.setBridges(0, Direction.SOUTH, 1);
+        assertEquals(true, compact.hasCrossings());
+    }
+}
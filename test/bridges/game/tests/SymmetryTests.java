@@ -0,0 +1,47 @@
+package bridges.game.tests;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import bridges.game.Board;
+import bridges.game.Bridge;
+import bridges.game.Direction;
+import bridges.game.Island;
+import bridges.game.Symmetry;
+
+public class SymmetryTests {
+
+    @Test
+    // Rotations move corners clockwise and turn directions accordingly.
+    public void testRotate() {
+        Island island = new Island(0, 0, 1);
+        assertEquals(new Island(2, 0, 1), Symmetry.ROTATE_90.apply(island, 5, 3));
+        assertEquals(new Island(4, 2, 1), Symmetry.ROTATE_180.apply(island, 5, 3));
+        assertEquals(new Island(0, 4, 1), Symmetry.ROTATE_270.apply(island, 5, 3));
+        assertEquals(Direction.EAST, Symmetry.ROTATE_90.apply(Direction.NORTH));
+        assertEquals(Direction.NORTH, Symmetry.ROTATE_270.apply(Direction.EAST));
+        assertEquals(3, Symmetry.ROTATE_90.getWidth(5, 3));
+        assertEquals(5, Symmetry.ROTATE_90.getHeight(5, 3));
+    }
+
+    @Test
+    // Applying a symmetry and its inverse restores the board.
+    public void testInverse() {
+        Island a = new Island(0, 0, 3);
+        Island b = new Island(4, 0, 2);
+        Island c = new Island(0, 2, 1);
+        Board board = new Board(6, 3);
+        board.addIsland(a);
+        board.addIsland(b);
+        board.addIsland(c);
+        board.addBridge(new Bridge(a, b, true));
+        board.addBridge(new Bridge(a, c, false));
+
+        for (Symmetry symmetry : Symmetry.values()) {
+            Board transformed = symmetry.apply(board);
+            assertEquals(2, transformed.bridges().size());
+            assertEquals(board, symmetry.inverse().apply(transformed));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package bridges.util.tests;
+
+// 3rd party imports
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+// Local imports
+import bridges.game.Board;
+import bridges.game.Bridge;
+
+import bridges.util.Algorithm;
+import bridges.util.AlgorithmPipeline;
+import bridges.util.AlgorithmStatistics;
+import bridges.util.BoardGenerator;
+import bridges.util.BoardSolver;
+import bridges.util.ConstraintSolver;
+import bridges.util.Isolated;
+import bridges.util.Required;
+import bridges.util.SolverBudget;
+
+public class AlgorithmPipelineTests {
+    /**
+     * A rule, which never finds a bridge.
+     */
+    private static class NeverRule implements Algorithm {
+        public Bridge nextBridge(Board board, SolverBudget budget) {
+            return null;
+        }
+    }
+
+    @Test
+    public void testStatistics() {
+        AlgorithmPipeline pipeline = new AlgorithmPipeline(new NeverRule(), new ConstraintSolver());
+        Board board = BoardGenerator.generate(10, 10, 20);
+        int steps = 0;
+        Bridge bridge;
+        while ((bridge = pipeline.nextBridge(board, SolverBudget.unlimited())) != null) {
+            board.addBridge(bridge);
+            steps++;
+        }
+        assertTrue(board.isComplete());
+
+        AlgorithmStatistics never = pipeline.getStatistics().get(0);
+        AlgorithmStatistics solver = pipeline.getStatistics().get(1);
+        assertSame(pipeline.getAlgorithms().get(0), never.getAlgorithm());
+        assertEquals(steps + 1, never.getInvocations());
+        assertEquals(0, never.getHits());
+        assertEquals(steps + 1, solver.getInvocations());
+        assertEquals(steps, solver.getHits());
+        assertTrue(solver.getNanos() > 0);
+
+        pipeline.resetStatistics();
+        assertEquals(0, solver.getInvocations());
+        assertEquals(0, solver.getNanos());
+    }
+
+    @Test
+    public void testIslandRuleWorklist() {
+        // A rule, which only checks changed islands, must find
+        // the same bridges as a new rule checking all islands.
+        Required required = new Required();
+        Isolated isolated = new Isolated();
+        for (int i = 0; i < 10; i++) {
+            Board board = BoardGenerator.generate(15, 15, 40);
+            Bridge bridge;
+            while ((bridge = BoardSolver.nextBridge(board)) != null) {
+                board.addBridge(bridge);
+                if (board.getBridgeCount(bridge.getFirstIsland()) % 3 == 0) {
+                    board.undo();
+                    assertEquals(new Required().nextBridge(board, SolverBudget.unlimited()),
+                            required.nextBridge(board, SolverBudget.unlimited()));
+                    board.redo();
+                }
+                assertEquals(new Required().nextBridge(board, SolverBudget.unlimited()),
+                        required.nextBridge(board, SolverBudget.unlimited()));
+                assertEquals(new Isolated().nextBridge(board, SolverBudget.unlimited()),
+                        isolated.nextBridge(board, SolverBudget.unlimited()));
+            }
+        }
+    }
+
+    @Test
+    public void testSetPipeline() {
+        AlgorithmPipeline pipeline = new AlgorithmPipeline(new NeverRule());
+        AlgorithmPipeline previous = BoardSolver.getPipeline();
+        BoardSolver.setPipeline(pipeline);
+        try {
+            assertNull(BoardSolver.nextBridge(BoardGenerator.generate()));
+            assertEquals(1, pipeline.getStatistics().get(0).getInvocations());
+        } finally {
+            BoardSolver.setPipeline(previous);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyPipeline() {
+        new AlgorithmPipeline(new ArrayList<Algorithm>());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullPipeline() {
+        BoardSolver.setPipeline(null);
+    }
+}
@@ -0,0 +1,53 @@
+package bridges.util.tests;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import bridges.game.Board;
+import bridges.game.Island;
+import bridges.game.Symmetry;
+import bridges.util.BoardCanonicalizer;
+
+public class BoardCanonicalizerTests {
+
+    /**
+     * @return A small board without any symmetry.
+     */
+    private static Board createBoard() {
+        Board board = new Board(6, 4);
+        board.addIsland(new Island(0, 0, 3));
+        board.addIsland(new Island(4, 0, 2));
+        board.addIsland(new Island(0, 2, 1));
+        board.addIsland(new Island(5, 3, 2));
+        return board;
+    }
+
+    @Test
+    // All rotations and mirror images have the same fingerprint and canonical board.
+    public void testSymmetricBoards() {
+        Board board = createBoard();
+        long fingerprint = BoardCanonicalizer.fingerprint(board);
+        Board canonical = BoardCanonicalizer.canonicalize(board);
+
+        for (Symmetry symmetry : Symmetry.values()) {
+            Board transformed = symmetry.apply(board);
+            assertEquals(fingerprint, BoardCanonicalizer.fingerprint(transformed));
+            assertEquals(canonical, BoardCanonicalizer.canonicalize(transformed));
+
+            // The inverse symmetry maps the canonical board back.
+            Symmetry canonicalSymmetry = BoardCanonicalizer.canonicalSymmetry(transformed);
+            assertEquals(transformed, canonicalSymmetry.inverse().apply(canonical));
+        }
+    }
+
+    @Test
+    // Different layouts have different fingerprints.
+    public void testDifferentBoards() {
+        Board board = createBoard();
+        Board other = createBoard();
+        other.addIsland(new Island(2, 2, 1));
+        assertNotEquals(BoardCanonicalizer.fingerprint(board), BoardCanonicalizer.fingerprint(other));
+    }
+}
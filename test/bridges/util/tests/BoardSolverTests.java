@@ -4,18 +4,49 @@ package bridges.util.tests;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 // Local imports
 import bridges.game.Board;
+import bridges.game.BoardState;
+import bridges.game.Bridge;
+import bridges.game.Island;
 
 import bridges.util.BoardGenerator;
 import bridges.util.BoardSolver;
 import bridges.util.BoardWriter;
+import bridges.util.BranchingStrategy;
+import bridges.util.Bruteforce;
+import bridges.util.SolverBudget;
+import bridges.util.ValueOrder;
 
 public class BoardSolverTests {
-    // Skip for now - solving still takes very long...
-    // @Test
+    /*
+     * A square of four 3s, which can be solved with either the horizontal
+     * or the vertical bridges doubled (see createSquare()).
+     */
+    final private Island topLeft = new Island(0, 0, 3);
+    final private Island topRight = new Island(2, 0, 3);
+    final private Island bottomLeft = new Island(0, 2, 3);
+    final private Island bottomRight = new Island(2, 2, 3);
+
+    /**
+     * Create a board with the square of four 3s.
+     */
+    private Board createSquare() {
+        return new Board(3, 3, Arrays.asList(topLeft, topRight, bottomLeft, bottomRight), null);
+    }
+
+    @Test
     public void testSolveRandom() {
         for (int i = 0; i < 100; i++) {
             Board board = BoardGenerator.generate();
@@ -27,4 +58,236 @@ public class BoardSolverTests {
                 fail("Couldn't solve board.\n" + BoardWriter.boardToString(board));
         }
     }
+
+    @Test
+    public void testStrategies() {
+        for (int i = 0; i < 10; i++) {
+            Board board = BoardGenerator.generate(8, 8, 10);
+            for (BranchingStrategy strategy : BranchingStrategy.values()) {
+                for (ValueOrder order : ValueOrder.values()) {
+                    Board solved = board.copy();
+                    if (!BoardSolver.solve(solved, strategy, order) || !solved.isComplete())
+                        fail("Couldn't solve board using " + strategy + " and " + order + ".\n"
+                                + BoardWriter.boardToString(board));
+
+                    solved = board.copy();
+                    if (!BoardSolver.bruteforce(solved, strategy, order) || !solved.isComplete())
+                        fail("Couldn't brute force board using " + strategy + " and " + order + ".\n"
+                                + BoardWriter.boardToString(board));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBruteforceUnsolvable() {
+        // The 2s can only be connected by a double bridge, which leaves the 1 alone.
+        Island a = new Island(0, 0, 2);
+        Island b = new Island(2, 0, 2);
+        Island c = new Island(4, 0, 1);
+        Board board = new Board(5, 1, Arrays.asList(a, b, c), null);
+        board.addBridge(new Bridge(b, c, false));
+        board.undo();
+
+        // The bridges tried by the search can neither be seen nor be redone.
+        assertFalse(BoardSolver.bruteforce(board, BranchingStrategy.FIRST, ValueOrder.NATURAL));
+        assertEquals(new ArrayList<Bridge>(), board.bridges());
+        assertFalse(board.canRedo());
+    }
+
+    @Test
+    public void testValueOrders() {
+        Island a = new Island(1, 0, 2);
+        Island b = new Island(4, 0, 3);
+        Island c = new Island(1, 3, 3);
+        Island d = new Island(4, 3, 3);
+        Island e = new Island(1, 5, 2);
+        Island f = new Island(4, 5, 1);
+        Board natural = new Board(6, 6, Arrays.asList(a, b, c, d, e, f), null);
+        Board mostFirst = natural.copy();
+
+        // The search branches on the upper 2: In their natural order, the double
+        // bridge to its eastern neighbor is tried first, but its southern
+        // neighbor still needs more bridges.
+        assertTrue(BoardSolver.solve(natural, BranchingStrategy.FEWEST_OPTIONS, ValueOrder.NATURAL));
+        assertTrue(BoardSolver.solve(mostFirst, BranchingStrategy.FEWEST_OPTIONS, ValueOrder.MOST_FIRST));
+        assertEquals(new Bridge(a, b, true), natural.searchBridge(a, b));
+        assertEquals(new Bridge(a, b, false), mostFirst.searchBridge(a, b));
+        assertEquals(new Bridge(a, c, false), mostFirst.searchBridge(a, c));
+    }
+
+    @Test
+    public void testBruteforceSmallStack() throws InterruptedException {
+        // A chain of 1000 islands needs a search 999 bridges deep.
+        List<Island> islands = new ArrayList<Island>();
+        for (int i = 0; i < 1000; i++)
+            islands.add(new Island(2 * i, 0, (i == 0 || i == 999) ? 1 : 2));
+        final Board board = new Board(1999, 1, islands, null);
+        final boolean[] success = new boolean[1];
+
+        // The search must not depend on the stack size of the thread.
+        Thread thread = new Thread(null, new Runnable() {
+            public void run() {
+                success[0] = BoardSolver.bruteforce(board, BranchingStrategy.FIRST, ValueOrder.NATURAL);
+            }
+        }, "bruteforce", 64 * 1024);
+        thread.start();
+        thread.join();
+
+        if (!success[0] || !board.isComplete())
+            fail("Couldn't brute force a long chain of islands.");
+    }
+
+    @Test
+    public void testBruteforceDeadEnd() {
+        // The 3 can get at most two bridges from the 2, so the first node is pruned.
+        Island a = new Island(0, 0, 3);
+        Island b = new Island(2, 0, 2);
+        Island c = new Island(4, 0, 1);
+        Board board = new Board(5, 1, Arrays.asList(a, b, c), null);
+        SolverBudget budget = SolverBudget.unlimited();
+        assertNull(new Bruteforce().nextBridge(board, budget));
+        assertEquals(1, budget.getNodes());
+
+        // A double bridge between the upper 2s completes their group, which is pruned
+        // (without pruning the search needs more than twice as many nodes).
+        a = new Island(0, 0, 2);
+        b = new Island(0, 4, 1);
+        c = new Island(4, 0, 2);
+        Island d = new Island(4, 4, 2);
+        Island e = new Island(2, 4, 1);
+        board = new Board(5, 5, Arrays.asList(a, b, c, d, e), null);
+        budget = new SolverBudget(Long.MAX_VALUE, 10);
+        assertNotNull(new Bruteforce().nextBridge(board, budget));
+        assertFalse(budget.isExhausted());
+
+        assertTrue(BoardSolver.bruteforce(board, BranchingStrategy.FIRST, ValueOrder.NATURAL));
+        assertTrue(board.isComplete());
+        assertEquals(new Bridge(a, b, false), board.searchBridge(a, b));
+        assertEquals(new Bridge(d, e, false), board.searchBridge(d, e));
+    }
+
+    @Test
+    public void testSolveParallel() {
+        for (int i = 0; i < 10; i++) {
+            Board board = BoardGenerator.generate(20, 20, 60);
+            Board solved = board.copy();
+            if (!BoardSolver.solve(solved, 4) || !solved.isComplete())
+                fail("Couldn't solve board in parallel.\n" + BoardWriter.boardToString(board));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidParallelism() {
+        BoardSolver.solve(BoardGenerator.generate(), 0);
+    }
+
+    @Test
+    public void testStepRandom() {
+        for (int i = 0; i < 20; i++) {
+            Board board = BoardGenerator.generate(25, 25, 100);
+            Board solved = board.copy();
+            boolean changed;
+            do {
+                changed = BoardSolver.step(solved);
+            } while (changed);
+
+            if (!solved.isComplete())
+                fail("Couldn't solve board step by step.\n" + BoardWriter.boardToString(board));
+        }
+    }
+
+    @Test
+    public void testCountSolutions() {
+        Board board = createSquare();
+
+        // Either the horizontal or the vertical bridges are double bridges.
+        assertEquals(2, BoardSolver.countSolutions(board, 10));
+        assertEquals(1, BoardSolver.countSolutions(board, 1));
+
+        board.addBridge(new Bridge(topLeft, topRight, true));
+        assertEquals(1, BoardSolver.countSolutions(board, 10));
+
+        board.addBridge(new Bridge(topLeft, bottomLeft, true));
+        assertEquals(0, BoardSolver.countSolutions(board, 10));
+    }
+
+    @Test
+    public void testForcedBridges() {
+        Board board = createSquare();
+        board.addBridge(new Bridge(topLeft, topRight, false));
+
+        // Every island needs a bridge to both neighbors, but not a double bridge.
+        assertEquals(Arrays.asList(new Bridge(topLeft, bottomLeft, false), new Bridge(topRight, bottomRight, false),
+                new Bridge(bottomLeft, bottomRight, false)), BoardSolver.forcedBridges(board));
+
+        for (int i = 0; i < 20; i++) {
+            board = BoardGenerator.generate(15, 15, 40);
+            if (BoardSolver.countSolutions(board, 2) != 1)
+                continue;
+
+            Board solved = board.copy();
+            BoardSolver.solve(solved);
+            // A forced single bridge may be part of a double bridge of the solution.
+            List<Bridge> forced = BoardSolver.forcedBridges(board);
+            for (Bridge bridge : forced) {
+                Bridge solution = solved.searchBridge(bridge.getFirstIsland(), bridge.getSecondIsland());
+                if (solution == null || bridge.isDouble() && !solution.isDouble())
+                    fail("Forced " + bridge + " isn't part of the solution.\n" + BoardWriter.boardToString(board));
+            }
+
+            for (Bridge bridge : forced)
+                board.addBridge(bridge);
+            assertEquals(new ArrayList<Bridge>(), BoardSolver.forcedBridges(board));
+        }
+    }
+
+    @Test
+    public void testForcedBridgesBudget() {
+        for (int i = 0; i < 10; i++) {
+            Board board = BoardGenerator.generate(15, 15, 40);
+            Board forced = board.copy();
+            for (Bridge bridge : BoardSolver.forcedBridges(board))
+                forced.addBridge(bridge);
+
+            // A cancelled budget stops after the first round with the bridges found so far.
+            SolverBudget cancelled = SolverBudget.unlimited();
+            cancelled.cancel();
+            for (Bridge bridge : BoardSolver.forcedBridges(board, cancelled)) {
+                Bridge expected = forced.searchBridge(bridge.getFirstIsland(), bridge.getSecondIsland());
+                if (expected == null || bridge.isDouble() && !expected.isDouble())
+                    fail("Forced " + bridge + " isn't forced without a budget.\n" + BoardWriter.boardToString(board));
+            }
+        }
+    }
+
+    @Test
+    public void testBudget() {
+        Board board = createSquare();
+        board.addBridge(new Bridge(topLeft, topRight, false));
+        board.addBridge(new Bridge(topLeft, bottomLeft, false));
+        board.addBridge(new Bridge(topRight, bottomRight, false));
+        board.addBridge(new Bridge(bottomLeft, bottomRight, false));
+
+        // Nothing is forced anymore, so the solver has to search.
+        assertEquals(BoardState.UNKNOWN, BoardSolver.getState(board, new SolverBudget(Long.MAX_VALUE, 0)));
+        assertEquals(-1, BoardSolver.countSolutions(board, 10, new SolverBudget(Long.MAX_VALUE, 0)));
+
+        SolverBudget cancelled = SolverBudget.unlimited();
+        cancelled.cancel();
+        assertEquals(-1, BoardSolver.countSolutions(board, 10, cancelled));
+        assertFalse(BoardSolver.solve(board.copy(), 1, cancelled));
+
+        SolverBudget budget = new SolverBudget(60000, 1000);
+        assertEquals(2, BoardSolver.countSolutions(board, 10, budget));
+        assertFalse(budget.isExhausted());
+        assertEquals(BoardState.UNSOLVED, BoardSolver.getState(board, SolverBudget.unlimited()));
+        assertTrue(BoardSolver.solve(board, 1, SolverBudget.unlimited()));
+        assertEquals(BoardState.SOLVED, BoardSolver.getState(board, cancelled));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBudget() {
+        new SolverBudget(-1, 0);
+    }
 }
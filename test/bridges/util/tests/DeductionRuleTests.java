@@ -0,0 +1,290 @@
+package bridges.util.tests;
+
+// 3rd party imports
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+// Local imports
+import bridges.game.Board;
+import bridges.game.Bridge;
+import bridges.game.Island;
+
+import bridges.util.Algorithm;
+import bridges.util.BoardGenerator;
+import bridges.util.BoardSolver;
+import bridges.util.Capacity;
+import bridges.util.Connectivity;
+import bridges.util.CrossingExclusion;
+import bridges.util.Probing;
+import bridges.util.SolverBudget;
+
+public class DeductionRuleTests {
+    /**
+     * Create a board with the given islands.
+     */
+    private static Board createBoard(int width, int height, Island... islands) {
+        Board board = new Board(width, height);
+        for (Island island : islands)
+            board.addIsland(island);
+        return board;
+    }
+
+    /**
+     * Generate a board with a unique solution.
+     */
+    private static Board generateUnique() {
+        Board board;
+        do {
+            board = BoardGenerator.generate(15, 15, 40);
+        } while (BoardSolver.countSolutions(board, 2) != 1);
+        return board;
+    }
+
+    /**
+     * Assert, that the given bridge (or a double bridge) is part of the solution.
+     */
+    private static void assertPartOf(Board solution, Bridge bridge) {
+        Bridge expected = solution.searchBridge(bridge.getFirstIsland(), bridge.getSecondIsland());
+        assertNotNull(expected);
+        assertTrue(expected.isDouble() || !bridge.isDouble());
+    }
+
+    @Test
+    // The missing bridges, which the other neighbors can't take, go to the remaining neighbor.
+    public void testCapacity() {
+        Island top = new Island(2, 0, 2);
+        Island left = new Island(0, 2, 1);
+        Island center = new Island(2, 2, 4);
+        Island right = new Island(4, 2, 2);
+        Board board = createBoard(5, 3, top, left, center, right);
+
+        Bridge bridge = new Capacity().nextBridge(board, center);
+        assertTrue(bridge.equals(new Bridge(center, top, false))
+                || bridge.equals(new Bridge(center, right, false)));
+    }
+
+    @Test
+    // Two 1s can't be connected, unless they are the only islands.
+    public void testCapacityIsolatedPair() {
+        Island a = new Island(0, 0, 1);
+        Island b = new Island(2, 0, 1);
+        Island c = new Island(0, 2, 2);
+        Island d = new Island(2, 2, 1);
+        Board board = createBoard(3, 3, a, b, c, d);
+        assertEquals(new Bridge(a, c, false), new Capacity().nextBridge(board, a));
+
+        board = createBoard(3, 1, a, b);
+        assertEquals(new Bridge(a, b, false), new Capacity().nextBridge(board, a));
+    }
+
+    @Test
+    // A group of connected islands may not be completed,
+    // unless it contains all islands.
+    public void testConnectivity() {
+        Island a = new Island(0, 0, 1);
+        Island b = new Island(2, 0, 2);
+        Island c = new Island(4, 0, 1);
+        Island d = new Island(2, 2, 3);
+        Island e = new Island(4, 2, 3);
+        Board board = createBoard(5, 3, a, b, c, d, e);
+        board.addBridge(new Bridge(a, b, false));
+
+        // A bridge from b to c would complete the group of a, b and c.
+        assertNull(new Capacity().nextBridge(board, b));
+        assertEquals(new Bridge(b, d, false), new Connectivity().nextBridge(board, SolverBudget.unlimited()));
+    }
+
+    @Test
+    // A group with a single exit left needs a bridge through it.
+    public void testConnectivityLastExit() {
+        Island a = new Island(0, 0, 3);
+        Island b = new Island(2, 0, 2);
+        Island c = new Island(0, 2, 2);
+        Island d = new Island(4, 0, 1);
+        Board board = createBoard(5, 3, a, b, c, d);
+        board.addBridge(new Bridge(a, c, false));
+
+        // The group of a and c can only be left from a to b.
+        assertEquals(new Bridge(a, b, false), new Connectivity().nextBridge(board, SolverBudget.unlimited()));
+    }
+
+    @Test
+    // A bridge may not cross a bridge, which one of its islands can't do without.
+    public void testCrossingExclusionNeeded() {
+        Island j = new Island(0, 2, 1);
+        Island n = new Island(4, 2, 2);
+        Island v = new Island(0, 4, 2);
+        Island a = new Island(2, 0, 1);
+        Island b = new Island(2, 4, 3);
+        Island c = new Island(4, 4, 3);
+        Board board = createBoard(5, 5, j, n, v, a, b, c);
+
+        // A bridge from j to n would cross the only bridge a can get.
+        assertNull(new Capacity().nextBridge(board, j));
+        assertEquals(new Bridge(j, v, false), new CrossingExclusion().nextBridge(board, SolverBudget.unlimited()));
+    }
+
+    @Test
+    // A bridge may not cross all remaining exits of a group.
+    public void testCrossingExclusionExits() {
+        Island j = new Island(0, 2, 1);
+        Island n = new Island(8, 2, 2);
+        Island v = new Island(0, 4, 2);
+        Island p = new Island(2, 0, 2);
+        Island q = new Island(4, 0, 3);
+        Island t = new Island(6, 0, 2);
+        Island r = new Island(2, 4, 2);
+        Island s = new Island(4, 4, 1);
+        Island u = new Island(6, 4, 2);
+        Island w = new Island(8, 4, 3);
+        Board board = createBoard(9, 5, j, n, v, p, q, t, r, s, u, w);
+        board.addBridge(new Bridge(p, q, false));
+        board.addBridge(new Bridge(q, t, false));
+
+        // A bridge from j to n would cross all three exits of the group of p, q and t,
+        // though none of them is needed on its own.
+        assertNull(new Capacity().nextBridge(board, j));
+        assertEquals(new Bridge(j, v, false), new CrossingExclusion().nextBridge(board, SolverBudget.unlimited()));
+    }
+
+    @Test
+    // A rule, which didn't find a bridge, isn't asked again, until the board changes.
+    public void testBoardRuleCache() {
+        Connectivity rule = new Connectivity();
+        for (int i = 0; i < 10; i++) {
+            Board board = BoardGenerator.generate(15, 15, 40);
+            Bridge bridge;
+            while ((bridge = BoardSolver.nextBridge(board)) != null) {
+                assertEquals(new Connectivity().nextBridge(board, SolverBudget.unlimited()),
+                        rule.nextBridge(board, SolverBudget.unlimited()));
+                board.addBridge(bridge);
+            }
+        }
+    }
+
+    @Test
+    // The caches of the rules don't keep a board alive, which is no longer used.
+    public void testRulesReleaseBoards() throws InterruptedException {
+        Capacity capacity = new Capacity();
+        Connectivity connectivity = new Connectivity();
+
+        // Both rules remember a solved board, where they don't find anything.
+        Board board = BoardGenerator.generate(15, 15, 40);
+        BoardSolver.solve(board);
+        assertNull(capacity.nextBridge(board, SolverBudget.unlimited()));
+        assertNull(connectivity.nextBridge(board, SolverBudget.unlimited()));
+
+        WeakReference<Board> reference = new WeakReference<Board>(board);
+        board = null;
+        for (int i = 0; i < 20 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+
+        // The rules still work for the next board.
+        board = BoardGenerator.generate(15, 15, 40);
+        assertEquals(new Capacity().nextBridge(board, SolverBudget.unlimited()),
+                capacity.nextBridge(board, SolverBudget.unlimited()));
+    }
+
+    @Test
+    // All bridges found by the rules are part of the solution.
+    public void testSoundness() {
+        for (int i = 0; i < 10; i++) {
+            Board board = generateUnique();
+            Board solution = board.copy();
+            BoardSolver.solve(solution);
+            for (Algorithm rule : Arrays.asList(new Capacity(), new Connectivity(), new CrossingExclusion(),
+                    new Probing(1, 1), new Probing(2, 3))) {
+                Board solved = board.copy();
+                Bridge bridge;
+                while ((bridge = rule.nextBridge(solved, SolverBudget.unlimited())) != null) {
+                    assertPartOf(solution, bridge);
+                    solved.addBridge(bridge);
+                }
+            }
+        }
+    }
+
+    @Test
+    // Probing finds a bridge, which the cheaper rules miss, with one and with several threads.
+    public void testProbing() {
+        Island a = new Island(0, 0, 2);
+        Island b = new Island(0, 2, 1);
+        Island c = new Island(0, 5, 2);
+        Island d = new Island(3, 0, 3);
+        Island e = new Island(3, 5, 3);
+        Island f = new Island(5, 0, 1);
+        Island g = new Island(5, 5, 2);
+        Board board = createBoard(6, 6, a, b, c, d, e, f, g);
+        board.addBridge(new Bridge(a, d, false));
+        board.addBridge(new Bridge(c, e, false));
+        board.addBridge(new Bridge(e, g, false));
+        assertEquals(1, BoardSolver.countSolutions(board, 2));
+
+        for (Algorithm rule : Arrays.asList(new Capacity(), new Connectivity(), new CrossingExclusion()))
+            assertNull(rule.nextBridge(board, SolverBudget.unlimited()));
+
+        // A bridge from a to b would force a double bridge from c to e,
+        // which leaves f as the only neighbor for the two missing bridges of d.
+        assertEquals(new Bridge(a, d, true), new Probing(2, 1).nextBridge(board, SolverBudget.unlimited()));
+        assertEquals(new Bridge(a, d, true), new Probing(2, 4).nextBridge(board, SolverBudget.unlimited()));
+    }
+
+    @Test
+    // Probing finds bridges of the solution with several threads, whenever it finds them with one.
+    // With a depth of 1, the bounds found don't depend on the order, in which the edges are narrowed.
+    public void testProbingParallel() {
+        for (int i = 0; i < 10; i++) {
+            Board board = generateUnique();
+            Board solution = board.copy();
+            BoardSolver.solve(solution);
+            Probing sequential = new Probing(1, 1);
+            Probing parallel = new Probing(1, 4);
+            Bridge bridge;
+            while ((bridge = sequential.nextBridge(board, SolverBudget.unlimited())) != null) {
+                Bridge other = parallel.nextBridge(board, SolverBudget.unlimited());
+                assertNotNull(other);
+                assertPartOf(solution, other);
+                board.addBridge(bridge);
+            }
+            assertNull(parallel.nextBridge(board, SolverBudget.unlimited()));
+        }
+    }
+
+    @Test
+    // Probing gives up, once the budget is exhausted, but tries again with a new budget.
+    public void testProbingBudget() {
+        Island a = new Island(0, 0, 2);
+        Island b = new Island(1, 2, 1);
+        Island c = new Island(4, 0, 3);
+        Island d = new Island(4, 2, 3);
+        Island e = new Island(7, 0, 1);
+        Island f = new Island(7, 2, 2);
+        Board board = createBoard(8, 3, a, b, c, d, e, f);
+        board.addBridge(new Bridge(a, c, true));
+        board.addBridge(new Bridge(b, d, false));
+        board.addBridge(new Bridge(d, f, false));
+
+        // Without a bridge from c to d, the bridges from c to e and
+        // from d to f would split the board into two groups.
+        Probing probing = new Probing(1, 1);
+        assertNull(probing.nextBridge(board, new SolverBudget(Long.MAX_VALUE, 0)));
+        assertEquals(new Bridge(c, d, false), probing.nextBridge(board, SolverBudget.unlimited()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    // A probe has to fix at least one edge.
+    public void testInvalidProbing() {
+        new Probing(0, 1);
+    }
+}